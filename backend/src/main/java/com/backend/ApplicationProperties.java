@@ -1,8 +1,14 @@
 package com.backend;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import com.backend.database.filtering.QueryBudget;
+
 @Component
 @ConfigurationProperties(prefix="benesphere")
 public class ApplicationProperties {
@@ -11,6 +17,22 @@ public class ApplicationProperties {
 
     private EmailProperties email;
 
+    private QueryProperties query = new QueryProperties();
+
+    private VoteProperties votes = new VoteProperties();
+
+    private CacheProperties charityCache = new CacheProperties();
+
+    private SearchHistoryProperties searchHistory = new SearchHistoryProperties();
+
+    private TrendingProperties trending = new TrendingProperties();
+
+    private FacetProperties facets = new FacetProperties();
+
+    private CommentProperties comments = new CommentProperties();
+
+    private DescriptionProperties descriptions = new DescriptionProperties();
+
     public static class EmailProperties {
 
         private String username = "benesphere";
@@ -37,6 +59,298 @@ public class ApplicationProperties {
         }
     }
 
+    public static class BudgetProperties {
+
+        private long maxCost = 1000;
+        private int maxNodes = 64;
+        private int maxDepth = 8;
+        private int maxRows = 1000;
+
+        public long getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(long maxCost) {
+            this.maxCost = maxCost;
+        }
+
+        public int getMaxNodes() {
+            return maxNodes;
+        }
+
+        public void setMaxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public QueryBudget toBudget() {
+            return new QueryBudget(maxCost, maxNodes, maxDepth, maxRows);
+        }
+    }
+
+    public static class QueryProperties {
+
+        private BudgetProperties defaults = new BudgetProperties();
+        private Map<String, BudgetProperties> budgets = new HashMap<>();
+
+        public BudgetProperties getDefaults() {
+            return defaults;
+        }
+
+        public void setDefaults(BudgetProperties defaults) {
+            this.defaults = defaults;
+        }
+
+        public Map<String, BudgetProperties> getBudgets() {
+            return budgets;
+        }
+
+        public void setBudgets(Map<String, BudgetProperties> budgets) {
+            this.budgets = budgets;
+        }
+
+        /**
+         * Gets the budget of user supplied queries to an endpoint.
+         * @param endpoint Name of the endpoint (e.g. "charities-list").
+         * @return The budget configured for the endpoint, or the default budget.
+         */
+        public QueryBudget getBudget(String endpoint) {
+            return budgets.getOrDefault(endpoint, defaults).toBudget();
+        }
+    }
+
+    public static class VoteProperties {
+
+        private boolean writeBehind = true;
+        private int queueCapacity = 10000;
+        private int batchSize = 500;
+        private int stripes = 64;
+        private int maxRetries = 5;
+        private Duration retryBackoff = Duration.ofMillis(500);
+
+        public boolean isWriteBehind() {
+            return writeBehind;
+        }
+
+        public void setWriteBehind(boolean writeBehind) {
+            this.writeBehind = writeBehind;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+    }
+
+    public static class CacheProperties {
+
+        private int capacity = 1024;
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class SearchHistoryProperties {
+
+        private int capacity = 10000;
+        private int batchSize = 500;
+        private Duration deduplicationWindow = Duration.ofMinutes(1);
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getDeduplicationWindow() {
+            return deduplicationWindow;
+        }
+
+        public void setDeduplicationWindow(Duration deduplicationWindow) {
+            this.deduplicationWindow = deduplicationWindow;
+        }
+    }
+
+    public static class TrendingProperties {
+
+        private Duration halfLife = Duration.ofHours(24);
+        private double voteWeight = 1.0;
+        private double visitWeight = 0.25;
+        private double minimumScore = 0.01;
+
+        public Duration getHalfLife() {
+            return halfLife;
+        }
+
+        public void setHalfLife(Duration halfLife) {
+            this.halfLife = halfLife;
+        }
+
+        public double getVoteWeight() {
+            return voteWeight;
+        }
+
+        public void setVoteWeight(double voteWeight) {
+            this.voteWeight = voteWeight;
+        }
+
+        public double getVisitWeight() {
+            return visitWeight;
+        }
+
+        public void setVisitWeight(double visitWeight) {
+            this.visitWeight = visitWeight;
+        }
+
+        public double getMinimumScore() {
+            return minimumScore;
+        }
+
+        public void setMinimumScore(double minimumScore) {
+            this.minimumScore = minimumScore;
+        }
+    }
+
+    public static class FacetProperties {
+
+        private int maxRows = 10000;
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+    }
+
+    public static class CommentProperties {
+
+        private int idBlockSize = 16;
+        private int recentSize = 50;
+        private long recentMaxBytes = 8 * 1024 * 1024;
+        private Duration recentTimeToLive = Duration.ofMinutes(1);
+
+        public int getIdBlockSize() {
+            return idBlockSize;
+        }
+
+        public void setIdBlockSize(int idBlockSize) {
+            this.idBlockSize = idBlockSize;
+        }
+
+        public int getRecentSize() {
+            return recentSize;
+        }
+
+        public void setRecentSize(int recentSize) {
+            this.recentSize = recentSize;
+        }
+
+        public long getRecentMaxBytes() {
+            return recentMaxBytes;
+        }
+
+        public void setRecentMaxBytes(long recentMaxBytes) {
+            this.recentMaxBytes = recentMaxBytes;
+        }
+
+        public Duration getRecentTimeToLive() {
+            return recentTimeToLive;
+        }
+
+        public void setRecentTimeToLive(Duration recentTimeToLive) {
+            this.recentTimeToLive = recentTimeToLive;
+        }
+    }
+
+    public static class DescriptionProperties {
+
+        private String directory = "";
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
     public void setEmail(EmailProperties properties) {
         this.email = properties;
     }
@@ -49,6 +363,70 @@ public class ApplicationProperties {
         return email;
     }
 
+    public void setQuery(QueryProperties query) {
+        this.query = query;
+    }
+
+    public QueryProperties getQuery() {
+        return query;
+    }
+
+    public void setVotes(VoteProperties votes) {
+        this.votes = votes;
+    }
+
+    public VoteProperties getVotes() {
+        return votes;
+    }
+
+    public void setCharityCache(CacheProperties charityCache) {
+        this.charityCache = charityCache;
+    }
+
+    public CacheProperties getCharityCache() {
+        return charityCache;
+    }
+
+    public void setSearchHistory(SearchHistoryProperties searchHistory) {
+        this.searchHistory = searchHistory;
+    }
+
+    public SearchHistoryProperties getSearchHistory() {
+        return searchHistory;
+    }
+
+    public void setTrending(TrendingProperties trending) {
+        this.trending = trending;
+    }
+
+    public TrendingProperties getTrending() {
+        return trending;
+    }
+
+    public void setFacets(FacetProperties facets) {
+        this.facets = facets;
+    }
+
+    public FacetProperties getFacets() {
+        return facets;
+    }
+
+    public void setComments(CommentProperties comments) {
+        this.comments = comments;
+    }
+
+    public CommentProperties getComments() {
+        return comments;
+    }
+
+    public void setDescriptions(DescriptionProperties descriptions) {
+        this.descriptions = descriptions;
+    }
+
+    public DescriptionProperties getDescriptions() {
+        return descriptions;
+    }
+
     public void setDebug(boolean debug) {
         this.debug = debug;
     }
@@ -0,0 +1,241 @@
+package com.backend.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Bounded, thread safe cache that loads missing values on lookup.
+ * <p>
+ * Values expire a fixed time after they were loaded. When the cache is full, entries are evicted in
+ * second-chance (clock) order. Concurrent lookups of a missing key share one load: the first lookup
+ * loads the value, the others wait for it. A key invalidated while its value is loading is loaded again
+ * by the next lookup, so a value read before a write is never cached after it.
+ * @param <Key> Type of the keys.
+ * @param <Value> Type of the cached values (not null).
+ * @author JaarmaCo
+ * @since 2025-10-13
+ * @version 1.0
+ */
+public class ReadThroughCache<Key, Value> {
+
+    private static final class Entry<Value> {
+
+        private final CompletableFuture<Value> value = new CompletableFuture<>();
+        private volatile long loadedAt;
+        private volatile boolean referenced = false;
+    }
+
+    private record Token<Key, Value>(Key key, Entry<Value> entry) {}
+
+    private final int capacity;
+    private final long timeToLive;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Key, Entry<Value>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Token<Key, Value>> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Create a new cache.
+     * @param capacity Maximum number of values to keep.
+     * @param timeToLive Time a value is kept after it was loaded.
+     */
+    public ReadThroughCache(int capacity, Duration timeToLive) {
+        this(capacity, timeToLive, System::nanoTime);
+    }
+
+    /**
+     * Create a new cache.
+     * @param capacity Maximum number of values to keep.
+     * @param timeToLive Time a value is kept after it was loaded.
+     * @param clock Source of the current time in nanoseconds.
+     */
+    public ReadThroughCache(int capacity, Duration timeToLive, LongSupplier clock) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive.");
+        if (timeToLive.isNegative() || timeToLive.isZero())
+            throw new IllegalArgumentException("Time to live must be positive.");
+        assert null != clock;
+        this.capacity = capacity;
+        this.timeToLive = timeToLive.toNanos();
+        this.clock = clock;
+    }
+
+    private boolean isExpired(Entry<Value> entry) {
+        return entry.value.isDone() && clock.getAsLong() - entry.loadedAt > timeToLive;
+    }
+
+    private void enqueue(Token<Key, Value> token) {
+        order.add(token);
+        queued.incrementAndGet();
+    }
+
+    /**
+     * Evicts entries until the cache is within its capacity. Also drops the tokens of entries that
+     * were invalidated or expired, once they outnumber the live ones.
+     */
+    private void evict() {
+        while (entries.size() > capacity || queued.get() > 2 * Math.max(capacity, entries.size())) {
+            Token<Key, Value> token = order.poll();
+            if (null == token)
+                return;
+            queued.decrementAndGet();
+            if (entries.get(token.key()) != token.entry())
+                continue;
+            if (entries.size() <= capacity || token.entry().referenced) {
+                token.entry().referenced = false;
+                enqueue(token);
+            } else if (entries.remove(token.key(), token.entry())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static <Value> Value await(Entry<Value> entry) {
+        try {
+            return entry.value.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the value of a key, loading it if it is not cached (or expired).
+     * @param key The key.
+     * @param loader Loads the value of a key. Exceptions thrown are passed on to every waiting lookup,
+     * and nothing is cached.
+     * @return The value.
+     */
+    public Value get(Key key, Function<Key, Value> loader) {
+        assert null != key;
+        assert null != loader;
+        while (true) {
+            Entry<Value> entry = entries.get(key);
+            if (null != entry) {
+                if (!isExpired(entry)) {
+                    entry.referenced = true;
+                    hits.increment();
+                    return await(entry);
+                }
+                if (entries.remove(key, entry))
+                    expirations.increment();
+                continue;
+            }
+            Entry<Value> loading = new Entry<>();
+            if (null != entries.putIfAbsent(key, loading))
+                continue;
+            misses.increment();
+            enqueue(new Token<>(key, loading));
+            evict();
+            try {
+                Value value = loader.apply(key);
+                if (null == value)
+                    throw new IllegalStateException("Loaded a null value.");
+                loading.loadedAt = clock.getAsLong();
+                loading.value.complete(value);
+                return value;
+            } catch (RuntimeException ex) {
+                entries.remove(key, loading);
+                loading.value.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Removes the value of a key, so that the next lookup loads it again.
+     */
+    public void invalidate(Key key) {
+        assert null != key;
+        if (null != entries.remove(key))
+            invalidations.increment();
+    }
+
+    /**
+     * Removes all values from the cache (counters are kept).
+     */
+    public void clear() {
+        entries.clear();
+        order.clear();
+        queued.set(0);
+    }
+
+    /**
+     * Gets the maximum number of values kept in the cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of values currently in the cache (including values being loaded).
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups that found a cached (or loading) value.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that loaded the value.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of values evicted to make room for new ones.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the number of values that were found expired.
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Gets the number of values removed by @see{#invalidate}.
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Convert the cache statistics to their json representation.
+     */
+    public JsonNode toJson() {
+        return JsonNodeFactory.instance.objectNode()
+            .put("capacity", getCapacity())
+            .put("size", size())
+            .put("hits", getHits())
+            .put("misses", getMisses())
+            .put("evictions", getEvictions())
+            .put("expirations", getExpirations())
+            .put("invalidations", getInvalidations());
+    }
+}
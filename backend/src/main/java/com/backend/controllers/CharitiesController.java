@@ -1,10 +1,17 @@
 package com.backend.controllers;
 
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,16 +21,25 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.backend.ApplicationProperties;
 import com.backend.database.adapters.CharitiesAdapter;
 import com.backend.database.entities.Charity;
 import com.backend.database.entities.CharityData;
 import com.backend.database.filtering.FilteredQuery;
 import com.backend.database.filtering.JsonToFilterConverter;
-import com.backend.database.repositories.CharityDataRepository;
+import com.backend.database.filtering.QuerySpec;
+import com.backend.database.ranking.Leaderboard;
+import com.backend.database.ranking.LeaderboardService;
+import com.backend.database.ranking.TrendingService;
+import com.backend.database.votes.VoteBuffer;
+import com.backend.database.votes.VoteWriter;
+import com.backend.database.votes.VoteBuffer.Delta;
 import com.backend.jwt.user.UserUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -39,16 +55,44 @@ public class CharitiesController {
     private CharitiesAdapter charitiesAdapter;
 
     @Autowired
-    private CharityDataRepository charityData;
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private VoteWriter voteWriter;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private TrendingService trendingService;
 
     private JsonNodeFactory jb = JsonNodeFactory.instance;
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final int MAX_LEADERBOARD_COUNT = 100;
+
+    private static final int MAX_BULK_VOTES = 100;
+
+    private static Optional<String> authenticatedUser() {
+        if (!UserUtil.isAuthenticated())
+            return Optional.empty();
+        try {
+            return Optional.of(UserUtil.getUsername());
+        } catch (Exception ex) {
+            return Optional.empty();
+        }
+    }
+
     @GetMapping("/list")
-    public ResponseEntity<JsonNode> list(@RequestParam(defaultValue = "", name = "query") String userQuery) {
+    public ResponseEntity<?> list(@RequestParam(defaultValue = "", name = "query") String userQuery) {
 
         JsonNode json;
         try {
-            json = new ObjectMapper().readTree(
+            json = mapper.readTree(
             new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
         } catch (Exception ex) {
             return ResponseEntity
@@ -58,30 +102,60 @@ public class CharitiesController {
         if (!json.isObject())
             return ResponseEntity.badRequest().body(
                 jb.objectNode().set("message", jb.textNode("Expected a Json object.")));
-        
-        List<CharityData> results;
-        try {
-            FilteredQuery<CharityData> query = new FilteredQuery<>(entityManager, CharityData.class);
-            results = JsonToFilterConverter.runQueryFromJson(query, json);
 
-            if (UserUtil.isAuthenticated()) {
-                charitiesAdapter.addSkimSearchEntries(results.stream().map(c -> new Charity(c.getCharity())).toList());
+        if (json.has("aggregate")) {
+            try {
+                return ResponseEntity.ok().body(jb.objectNode()
+                    .put("message", "success")
+                    .set("value", JsonToFilterConverter.runAggregateFromJson(
+                        new FilteredQuery<>(entityManager, CharityData.class), json,
+                        properties.getQuery().getBudget("charities-list"))));
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest()
+                    .body(jb.objectNode()
+                    .put("message", ex.getMessage()));
+            } catch (Exception ex) {
+                return ResponseEntity.status(500)
+                    .body(jb.objectNode()
+                    .put("message", "Error fetching results."));
+            }
+        }
+
+        FilteredQuery<CharityData> query;
+        QuerySpec<CharityData> spec;
+        Optional<Supplier<JsonNode>> facets = Optional.empty();
+        try {
+            query = new FilteredQuery<>(entityManager, CharityData.class);
+            spec = JsonToFilterConverter.specFromJson(query, json,
+                properties.getQuery().getBudget("charities-list"));
+            if (json.has("facets")) {
+                facets = Optional.of(JsonToFilterConverter.facetsFromJson(
+                    new FilteredQuery<>(entityManager, CharityData.class), json, "charity",
+                    properties.getQuery().getBudget("charities-list"), properties.getFacets().getMaxRows()));
             }
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest()
+                .body(jb.objectNode()
+                .put("message", ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.status(500)
                 .body(jb.objectNode()
                 .put("message", "Error fetching results."));
         }
 
-        JsonNode values = jb.arrayNode()
-            .addAll(results.stream()
-                .map(c -> c.toJson()).toList());
-
-        JsonNode result = jb.objectNode()
-            .put("message", "success")
-            .set("value", values);
+        // The body is written on another thread, so the user has to be resolved here.
+        Optional<String> username = authenticatedUser();
+        List<Charity> skimmed = new ArrayList<>();
 
-        return ResponseEntity.ok().body(result);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(StreamingList.of(transactionManager, query, spec, c -> c.toJson(),
+                row -> {
+                    if (username.isPresent() && row.has("charity"))
+                        skimmed.add(new Charity(row.get("charity").asText()));
+                },
+                () -> username.ifPresent(u -> charitiesAdapter.addSkimSearchEntries(u, skimmed)),
+                facets));
     }
 
     @GetMapping("/get")
@@ -89,7 +163,7 @@ public class CharitiesController {
 
         JsonNode json;
         try {
-            json = new ObjectMapper().readTree(
+            json = mapper.readTree(
             new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
         } catch (Exception ex) {
             return ResponseEntity
@@ -101,19 +175,106 @@ public class CharitiesController {
                 jb.objectNode().put("message", "Missing Org ID"));
         }
         try {
-            Charity charity = charitiesAdapter.get(json.get("identity").asText());
+            Optional<JsonNode> details = charitiesAdapter.getDetails(json.get("identity").asText());
+            if (details.isEmpty()) {
+                return ResponseEntity.status(404)
+                    .body(jb.objectNode().put("message", "No such charity."));
+            }
+            Charity charity = new Charity(json.get("identity").asText());
             charitiesAdapter.addSearchEntry(charity);
+            ObjectNode value = details.get().deepCopy();
+            Delta pending = voteWriter.getPendingDelta(charity.getOrgID());
+            if (!pending.isNone()) {
+                value.put("positiveScore", value.get("positiveScore").asLong() + pending.positive());
+                value.put("negativeScore", value.get("negativeScore").asLong() + pending.negative());
+                value.put("totalScore", value.get("totalScore").asLong() + pending.positive() - pending.negative());
+            }
+            if (authenticatedUser().isPresent()) {
+                Optional<Boolean> vote = charitiesAdapter.getVote(charity.getOrgID());
+                if (vote.isPresent())
+                    value.put("vote", vote.get());
+                else
+                    value.putNull("vote");
+            }
             return ResponseEntity.ok()
                 .body(jb.objectNode()
                     .put("message", "success")
-                    .set("value", 
-                        charityData.getReferenceById(charity.getOrgID()).toJson()));
+                    .set("value", value));
         } catch (Exception ex) {
             return ResponseEntity.status(500)
                 .body(jb.objectNode().put("message", "Error fetching charity."));
         }
     }
 
+    /**
+     * Gets the highest scored charities, or the charities ranked around one charity.
+     * The query is {"count": N} for the top N (10 by default), or {"charity": orgId, "radius": N} for up
+     * to N charities above and below a charity. N is at most 100.
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<JsonNode> leaderboard(@RequestParam(defaultValue = "", name = "query") String userQuery) {
+
+        JsonNode json;
+        try {
+            json = userQuery.isEmpty() ? jb.objectNode() : mapper.readTree(
+                new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
+        } catch (Exception ex) {
+            return ResponseEntity
+                .status(422).body(jb.objectNode()
+                    .put("message", "Expecting json encoded as base64 as the query parameter."));
+        }
+        Leaderboard leaderboard = leaderboardService.getLeaderboard();
+        List<Leaderboard.Entry> entries;
+        if (json.has("charity")) {
+            int radius = json.path("radius").asInt(5);
+            if (radius < 0 || radius > MAX_LEADERBOARD_COUNT)
+                return ResponseEntity.badRequest().body(jb.objectNode()
+                    .put("message", String.format("Radius must be between 0 and %d.", MAX_LEADERBOARD_COUNT)));
+            entries = leaderboard.around(json.get("charity").asText(), radius);
+            if (entries.isEmpty())
+                return ResponseEntity.status(404).body(jb.objectNode()
+                    .put("message", "No such charity."));
+        } else {
+            int count = json.path("count").asInt(10);
+            if (count < 1 || count > MAX_LEADERBOARD_COUNT)
+                return ResponseEntity.badRequest().body(jb.objectNode()
+                    .put("message", String.format("Count must be between 1 and %d.", MAX_LEADERBOARD_COUNT)));
+            entries = leaderboard.top(count);
+        }
+        ArrayNode value = jb.arrayNode();
+        entries.forEach(e -> value.add(e.toJson()));
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", value));
+    }
+
+    /**
+     * Gets the charities with the most recent activity (up votes and visits, decayed over time).
+     * The query is {"count": N} for the top N (10 by default, at most 100).
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<JsonNode> trending(@RequestParam(defaultValue = "", name = "query") String userQuery) {
+
+        JsonNode json;
+        try {
+            json = userQuery.isEmpty() ? jb.objectNode() : mapper.readTree(
+                new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
+        } catch (Exception ex) {
+            return ResponseEntity
+                .status(422).body(jb.objectNode()
+                    .put("message", "Expecting json encoded as base64 as the query parameter."));
+        }
+        int count = json.path("count").asInt(10);
+        if (count < 1 || count > MAX_LEADERBOARD_COUNT)
+            return ResponseEntity.badRequest().body(jb.objectNode()
+                .put("message", String.format("Count must be between 1 and %d.", MAX_LEADERBOARD_COUNT)));
+        ArrayNode value = jb.arrayNode();
+        trendingService.getScores().top(count).forEach(e -> value.add(e.toJson()));
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", value));
+    }
+
     @PostMapping("/vote")
     public ResponseEntity<String> vote(@RequestBody JsonNode json) {
         if (!json.has("charity")) {
@@ -124,10 +285,53 @@ public class CharitiesController {
         }
         String charity = json.get("charity").asText();
         boolean up = json.get("up").asBoolean();
-        if (charitiesAdapter.vote(charity, up)) {
-            return ResponseEntity.ok().body("Vote posted successfully");
+        return voteResponse(() -> charitiesAdapter.vote(charity, up),
+            "Vote posted successfully", "Error posting vote");
+    }
+
+    /**
+     * Sets or removes several votes of the current user at once.
+     * The body is {"votes": [{"charity": orgId, "up": true|false} or {"charity": orgId, "remove": true}, ...]},
+     * with at most 100 votes. The value of the response holds the status of every vote, in order:
+     * "accepted", "unchanged", "dropped" (retry later) or "invalid" (no such charity).
+     */
+    @PostMapping("/bulk_vote")
+    public ResponseEntity<JsonNode> bulkVote(@RequestBody JsonNode json) {
+        JsonNode items = json.path("votes");
+        if (!items.isArray()) {
+            return ResponseEntity.badRequest().body(jb.objectNode()
+                .put("message", "Missing votes array."));
+        }
+        if (items.size() > MAX_BULK_VOTES) {
+            return ResponseEntity.badRequest().body(jb.objectNode()
+                .put("message", String.format("At most %d votes can be posted at once.", MAX_BULK_VOTES)));
+        }
+        List<Map.Entry<String, Optional<Boolean>>> votes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); ++i) {
+            JsonNode item = items.get(i);
+            boolean remove = item.path("remove").asBoolean(false);
+            if (!item.path("charity").isTextual() || (!remove && !item.path("up").isBoolean())) {
+                return ResponseEntity.badRequest().body(jb.objectNode()
+                    .put("message", String.format("Vote %d must have a charity, and either up or remove.", i)));
+            }
+            votes.add(Map.entry(item.get("charity").asText(),
+                remove ? Optional.empty() : Optional.of(item.get("up").asBoolean())));
+        }
+        try {
+            ArrayNode value = jb.arrayNode();
+            List<VoteBuffer.Result> results = charitiesAdapter.voteAll(votes);
+            for (int i = 0; i < results.size(); ++i) {
+                value.add(jb.objectNode()
+                    .put("charity", votes.get(i).getKey())
+                    .put("status", results.get(i).name().toLowerCase(Locale.ROOT)));
+            }
+            return ResponseEntity.ok().body(jb.objectNode()
+                .put("message", "success")
+                .set("value", value));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(jb.objectNode()
+                .put("message", "Error posting votes."));
         }
-        return ResponseEntity.status(500).body("Error posting vote");
     }
 
     @PutMapping("/edit_vote")
@@ -140,10 +344,8 @@ public class CharitiesController {
         }
         String charity = json.get("charity").asText();
         boolean up = json.get("up").asBoolean();
-        if (!charitiesAdapter.editVote(charity, up))  {
-            return ResponseEntity.status(500).body("Failed to edit vote.");
-        }
-        return ResponseEntity.ok("Vote registered successfully.");
+        return voteResponse(() -> charitiesAdapter.editVote(charity, up),
+            "Vote registered successfully.", "Failed to edit vote.");
     }
 
     @DeleteMapping("/remove_vote")
@@ -152,9 +354,25 @@ public class CharitiesController {
             return ResponseEntity.badRequest().body("Missing charity");
         }
         String charity = json.get("charity").asText();
-        if (charitiesAdapter.deleteVote(charity)) {
-            return ResponseEntity.ok().body("Vote edited successfully");
+        return voteResponse(() -> charitiesAdapter.deleteVote(charity),
+            "Vote edited successfully", "Error removing like.");
+    }
+
+    /**
+     * Answers a request that sets or removes one vote: 404 if the charity does not exist, 500 if the
+     * vote was dropped or failed.
+     */
+    private ResponseEntity<String> voteResponse(Supplier<VoteBuffer.Result> vote, String success, String failure) {
+        VoteBuffer.Result result;
+        try {
+            result = vote.get();
+        } catch (Exception ex) {
+            return ResponseEntity.status(500).body(failure);
         }
-        return ResponseEntity.status(500).body("Error removing like.");
+        return switch (result) {
+            case ACCEPTED, UNCHANGED -> ResponseEntity.ok().body(success);
+            case INVALID -> ResponseEntity.status(404).body("Charity could not be found");
+            default -> ResponseEntity.status(500).body(failure);
+        };
     }
 }
@@ -1,21 +1,29 @@
 package com.backend.controllers;
 
+import com.backend.ApplicationProperties;
 import com.backend.database.adapters.CommentsAdapter;
 import com.backend.database.entities.Comment;
+import com.backend.database.filtering.Cursor;
 import com.backend.database.filtering.FilteredQuery;
 import com.backend.database.filtering.JsonToFilterConverter;
+import com.backend.database.filtering.QuerySpec;
+import com.backend.database.filtering.ResultPage;
 import com.backend.jwt.user.UserUtil;
 
 import java.util.Base64;
-import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.bind.annotation.*;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -36,8 +44,18 @@ public class CommentsController {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties properties;
+
     private final JsonNodeFactory jb = JsonNodeFactory.instance;
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final int MAX_TIMELINE_COUNT = 100;
+
     @PostMapping("/add")
     public ResponseEntity<String> add(@RequestBody JsonNode json) {
         if (!json.has("comment")) {
@@ -56,11 +74,11 @@ public class CommentsController {
     }
 
     @GetMapping("/list")
-    public ResponseEntity<JsonNode> list(@RequestParam(defaultValue = "", name = "query") String userQuery) {
+    public ResponseEntity<?> list(@RequestParam(defaultValue = "", name = "query") String userQuery) {
         
         JsonNode json;
         try {
-            json = new ObjectMapper().readTree(
+            json = mapper.readTree(
             new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
         } catch (Exception ex) {
             return ResponseEntity
@@ -72,20 +90,90 @@ public class CommentsController {
             return ResponseEntity.badRequest().body(
                 jb.objectNode().set("message", jb.textNode("Expected a Json object.")));
         
-        List<Comment> results;
+        if (json.has("aggregate")) {
+            try {
+                return ResponseEntity.ok().body(jb.objectNode()
+                    .put("message", "success")
+                    .set("value", JsonToFilterConverter.runAggregateFromJson(
+                        new FilteredQuery<>(entityManager, Comment.class), json,
+                        properties.getQuery().getBudget("comments-list"))));
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest()
+                    .body(jb.objectNode()
+                    .put("message", ex.getMessage()));
+            } catch (Exception ex) {
+                return ResponseEntity.status(500)
+                    .body(jb.objectNode()
+                    .put("message", "Error fetching results."));
+            }
+        }
+
+        FilteredQuery<Comment> query;
+        QuerySpec<Comment> spec;
+        try {
+            query = new FilteredQuery<>(entityManager, Comment.class);
+            spec = JsonToFilterConverter.specFromJson(query, json,
+                properties.getQuery().getBudget("comments-list"));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest()
+                .body(jb.objectNode()
+                .put("message", ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(500)
+                .body(jb.objectNode()
+                .put("message", "Error fetching results."));
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(StreamingList.of(transactionManager, query, spec, c -> c.toJson(), row -> {}, () -> {}));
+    }
+
+    /**
+     * Gets the comments on a charity, newest first, a page at a time.
+     * The query is {"charity": id, "count": N, "after": cursor}, with N comments per page (20 by
+     * default, at most 100) and the cursor returned as "next" with the previous page.
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<JsonNode> timeline(@RequestParam(defaultValue = "", name = "query") String userQuery) {
+
+        JsonNode json;
         try {
-            FilteredQuery<Comment> query = new FilteredQuery<>(entityManager, Comment.class);
-            results = JsonToFilterConverter.runQueryFromJson(query, json);
+            json = mapper.readTree(
+                new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
+        } catch (Exception ex) {
+            return ResponseEntity
+                .status(422).body(jb.objectNode()
+                    .put("message", "Expecting json encoded as base64 as the query parameter."));
+        }
+        if (!json.isObject() || !json.path("charity").isTextual())
+            return ResponseEntity.badRequest().body(jb.objectNode()
+                .put("message", "Missing charity"));
+        int count = json.path("count").asInt(20);
+        if (count < 1 || count > MAX_TIMELINE_COUNT)
+            return ResponseEntity.badRequest().body(jb.objectNode()
+                .put("message", String.format("Count must be between 1 and %d.", MAX_TIMELINE_COUNT)));
+
+        ResultPage<JsonNode> page;
+        try {
+            Optional<Cursor> after = json.has("after") ?
+                Optional.of(Cursor.decode(json.get("after").asText())) : Optional.empty();
+            page = commentsAdapter.getTimeline(json.get("charity").asText(), count, after);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest()
+                .body(jb.objectNode()
+                .put("message", ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.status(500)
                 .body(jb.objectNode()
                 .put("message", "Error fetching results."));
         }
-        return ResponseEntity.ok().body(jb.objectNode()
+        ArrayNode value = jb.arrayNode();
+        page.results().forEach(value::add);
+        ObjectNode body = jb.objectNode()
             .put("message", "success")
-            .set("value", jb.arrayNode()
-                .addAll(results.stream()
-                    .map(c -> c.toJson()).toList())));
+            .set("value", value);
+        page.next().ifPresent(next -> body.put("next", next.encode()));
+        return ResponseEntity.ok().body(body);
     }
 
     @DeleteMapping("/remove")
@@ -105,6 +193,44 @@ public class CommentsController {
         return ResponseEntity.status(404).body("Comment could not be found");
     }
 
+    @PostMapping("/vote")
+    public ResponseEntity<String> vote(@RequestBody JsonNode json) {
+        if (!json.has("comment_id")) {
+            return ResponseEntity.badRequest().body("Missing comment id");
+        }
+        if (!json.has("charity")) {
+            return ResponseEntity.badRequest().body("Missing charity");
+        }
+        if (!json.has("up")) {
+            return ResponseEntity.badRequest().body("Missing up field.");
+        }
+        int comment_id = json.get("comment_id").asInt();
+        String charity = json.get("charity").asText();
+        boolean up = json.get("up").asBoolean();
+
+        if (commentsAdapter.vote(comment_id, charity, UserUtil.getUsername(), up)) {
+            return ResponseEntity.ok("Vote posted successfully");
+        }
+        return ResponseEntity.status(500).body("Error posting vote");
+    }
+
+    @DeleteMapping("/remove_vote")
+    public ResponseEntity<String> removeVote(@RequestBody JsonNode json) {
+        if (!json.has("comment_id")) {
+            return ResponseEntity.badRequest().body("Missing comment id");
+        }
+        if (!json.has("charity")) {
+            return ResponseEntity.badRequest().body("Missing charity");
+        }
+        int comment_id = json.get("comment_id").asInt();
+        String charity = json.get("charity").asText();
+
+        if (commentsAdapter.deleteVote(comment_id, charity, UserUtil.getUsername())) {
+            return ResponseEntity.ok("Vote removed successfully");
+        }
+        return ResponseEntity.status(500).body("Error removing vote");
+    }
+
     @PostMapping("/blame")
     public ResponseEntity<String> blame(@RequestBody JsonNode json) {
         if (!json.has("comment_id")) {
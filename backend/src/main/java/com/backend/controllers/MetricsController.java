@@ -0,0 +1,104 @@
+package com.backend.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.backend.database.adapters.CharitiesAdapter;
+import com.backend.database.adapters.CommentsAdapter;
+import com.backend.database.comments.CommentIdAllocator;
+import com.backend.database.filtering.JsonToFilterConverter;
+import com.backend.database.history.SearchHistoryWriter;
+import com.backend.database.votes.VoteWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Controller for endpoints that expose runtime statistics of the back end.
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-02
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final JsonNodeFactory jb = JsonNodeFactory.instance;
+
+    @Autowired
+    private VoteWriter voteWriter;
+
+    @Autowired
+    private CharitiesAdapter charitiesAdapter;
+
+    @Autowired
+    private SearchHistoryWriter searchHistoryWriter;
+
+    @Autowired
+    private CommentIdAllocator commentIdAllocator;
+
+    @Autowired
+    private CommentsAdapter commentsAdapter;
+
+    /**
+     * Gets hit, miss and eviction counters of the filter plan cache.
+     */
+    @GetMapping("/filter_plans")
+    public ResponseEntity<JsonNode> filterPlans() {
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", JsonToFilterConverter.getPlanCache().toJson()));
+    }
+
+    /**
+     * Gets queue depth, flush latency and dropped write counters of the vote writer.
+     */
+    @GetMapping("/votes")
+    public ResponseEntity<JsonNode> votes() {
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", voteWriter.getBuffer().toJson()));
+    }
+
+    /**
+     * Gets hit, miss and eviction counters of the charity detail cache.
+     */
+    @GetMapping("/charity_cache")
+    public ResponseEntity<JsonNode> charityCache() {
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", charitiesAdapter.getDetailsCache().toJson()));
+    }
+
+    /**
+     * Gets the size, shed and deduplicated counters of the search history writer.
+     */
+    @GetMapping("/search_history")
+    public ResponseEntity<JsonNode> searchHistory() {
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", searchHistoryWriter.getBuffer().toJson()));
+    }
+
+    /**
+     * Gets the hit, miss and eviction counters and memory use of the cache of the newest comments of charities.
+     */
+    @GetMapping("/comment_cache")
+    public ResponseEntity<JsonNode> commentCache() {
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", commentsAdapter.getRecentComments().toJson()));
+    }
+
+    /**
+     * Gets the number of comment ids handed out, and of id blocks reserved.
+     */
+    @GetMapping("/comment_ids")
+    public ResponseEntity<JsonNode> commentIds() {
+        return ResponseEntity.ok().body(jb.objectNode()
+            .put("message", "success")
+            .set("value", commentIdAllocator.getBlocks().toJson()));
+    }
+}
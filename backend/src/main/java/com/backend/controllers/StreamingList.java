@@ -0,0 +1,116 @@
+package com.backend.controllers;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.backend.database.filtering.Cursor;
+import com.backend.database.filtering.FilteredQuery;
+import com.backend.database.filtering.QuerySpec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the results of list endpoints straight to the response, one row at a time.
+ * <p>
+ * The body has the same shape as a regular list response: {"message": "success", "value": [...], "next": ...},
+ * followed by "facets" if facet counts were requested. A response that fails part way is cut short
+ * without closing its json, so that clients do not mistake it for a complete one.
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-04
+ */
+public final class StreamingList {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingList.class);
+
+    private StreamingList() {}
+
+    /**
+     * Create a response body that streams the results of a query.
+     * <p>
+     * The body is written on a different thread than the request, so the query must already be
+     * validated, and no request (or authentication) state may be used by the callbacks.
+     * @param <Entity> Database entity to query.
+     * @param transactionManager Manager used to open the read-only transaction the rows are streamed in.
+     * @param query Query to run.
+     * @param spec Filter, ordering and limits of the query.
+     * @param toJson Converts a row to its json representation (unless the query is a projection).
+     * @param onRow Receives the json of every written row.
+     * @param onComplete Run after all rows were written, outside of the read-only transaction.
+     * @return The response body.
+     */
+    public static <Entity> StreamingResponseBody of(PlatformTransactionManager transactionManager,
+            FilteredQuery<Entity> query, QuerySpec<Entity> spec,
+            Function<Entity, JsonNode> toJson, Consumer<JsonNode> onRow, Runnable onComplete) {
+        return of(transactionManager, query, spec, toJson, onRow, onComplete, Optional.empty());
+    }
+
+    /**
+     * Create a response body that streams the results of a query, followed by facet counts.
+     * @see StreamingList#of(PlatformTransactionManager, FilteredQuery, QuerySpec, Function, Consumer, Runnable)
+     * @param facets Counts the facets of the results, run in the same read-only transaction after the rows are written.
+     * @return The response body.
+     */
+    public static <Entity> StreamingResponseBody of(PlatformTransactionManager transactionManager,
+            FilteredQuery<Entity> query, QuerySpec<Entity> spec,
+            Function<Entity, JsonNode> toJson, Consumer<JsonNode> onRow, Runnable onComplete,
+            Optional<Supplier<JsonNode>> facets) {
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        return output -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+                // Closing the generator would otherwise end the open array and object after a failure.
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                generator.writeStartObject();
+                generator.writeStringField("message", "success");
+                generator.writeArrayFieldStart("value");
+                Consumer<JsonNode> write = json -> {
+                    try {
+                        mapper.writeTree(generator, json);
+                    } catch (Exception ex) {
+                        throw new RuntimeException("Failed to write row.", ex);
+                    }
+                    onRow.accept(json);
+                };
+                JsonNode[] counts = { null };
+                Optional<Cursor> next = transaction.execute(status -> {
+                    Optional<Cursor> cursor = spec.isProjection() ?
+                        query.streamProjection(spec, write::accept)
+                        : query.streamPage(spec, row -> write.accept(toJson.apply(row)));
+                    facets.ifPresent(f -> counts[0] = f.get());
+                    return cursor;
+                });
+                generator.writeEndArray();
+                if (null != next && next.isPresent())
+                    generator.writeStringField("next", next.get().encode());
+                if (null != counts[0]) {
+                    generator.writeFieldName("facets");
+                    mapper.writeTree(generator, counts[0]);
+                }
+                generator.writeEndObject();
+            } catch (RuntimeException ex) {
+                // Headers are already sent at this point, all we can do is cut the response short.
+                log.error("Failed to stream query results: {}", ex.getMessage());
+                throw ex;
+            }
+            try {
+                onComplete.run();
+            } catch (RuntimeException ex) {
+                log.error("Failed to complete streamed query: {}", ex.getMessage());
+            }
+        };
+    }
+}
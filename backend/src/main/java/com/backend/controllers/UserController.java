@@ -54,6 +54,8 @@ public class UserController {
     @Autowired
     private UserAdapter userAdapter;
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -85,7 +87,7 @@ public class UserController {
 
         JsonNode json;
         try {
-            json = new ObjectMapper().readTree(
+            json = mapper.readTree(
             new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
         } catch (Exception ex) {
             return ResponseEntity
@@ -322,7 +324,7 @@ public class UserController {
         JsonNodeFactory factory = JsonNodeFactory.instance;
         JsonNode json;
         try {
-            json = new ObjectMapper().readTree(
+            json = mapper.readTree(
             new String(Base64.getUrlDecoder().decode(userQuery.getBytes())));
         } catch (Exception ex) {
             return ResponseEntity
@@ -1,15 +1,32 @@
 package com.backend.database.adapters;
 
+import com.backend.ApplicationProperties;
+import com.backend.cache.ReadThroughCache;
 import com.backend.database.repositories.*;
 import com.backend.jwt.user.UserUtil;
 import com.backend.database.entities.*;
-import com.backend.database.entities.keys.CharityVoteKey;
+import com.backend.database.facets.CharityFacetService;
+import com.backend.database.history.SearchHistoryWriter;
+import com.backend.database.ranking.LeaderboardService;
+import com.backend.database.votes.VoteBuffer;
+import com.backend.database.votes.VoteWriter;
+import com.backend.database.votes.VotesWritten;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Adapter for interacting with charity data.
@@ -23,9 +40,6 @@ public class CharitiesAdapter {
     @Autowired
     private CharityRepository charityRepository;
 
-    @Autowired
-    private CharityScoresRepository scoresRepository;
-
     @Autowired
     private PausedCharitiesRepository pausedCharitiesRepository;
 
@@ -33,10 +47,99 @@ public class CharitiesAdapter {
     private AdministratorsRepository administratorsRepository;
 
     @Autowired
-    private SearchedCharitiesRepository searchedCharities;
+    private SearchHistoryWriter searchHistory;
+
+    @Autowired
+    private CharityDataRepository charityDataRepository;
+
+    @Autowired
+    private VoteWriter voteWriter;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private CharityFacetService facets;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    private ReadThroughCache<String, JsonNode> details;
 
     protected CharitiesAdapter() {}
 
+    @PostConstruct
+    public void init() {
+        ApplicationProperties.CacheProperties cache = properties.getCharityCache();
+        details = new ReadThroughCache<>(cache.getCapacity(), cache.getTimeToLive());
+    }
+
+    /**
+     * Replaces the vote of the current user on a charity. The vote is written to the database
+     * shortly after (see @see{VoteWriter}), but is visible to the user immediately.
+     * @param charity Charity that is voted on.
+     * @param value New value of the vote, or Optional.empty() to remove it.
+     * @return Whether the vote was accepted (INVALID if the charity does not exist).
+     */
+    private VoteBuffer.Result setVote(String charity, Optional<Boolean> value) {
+        assert null != charity;
+        // Every charity is on the leaderboard once it is loaded, so the database is only asked about
+        // charities added since, or that do not exist. The details are invalidated once the vote is
+        // written (see onVotesWritten).
+        if (!leaderboardService.getLeaderboard().contains(charity) && !charityRepository.existsById(charity))
+            return VoteBuffer.Result.INVALID;
+        return voteWriter.vote(UserUtil.getUsername(), charity, value);
+    }
+
+    /**
+     * Replaces several votes of the current user. The votes are written to the database together
+     * shortly after (see @see{VoteWriter}), but are visible to the user immediately.
+     * @param votes Charity and new value of every vote (Optional.empty() to remove it), in order.
+     * @return Whether each vote was accepted, in order (INVALID if the charity does not exist).
+     */
+    public List<VoteBuffer.Result> voteAll(List<Map.Entry<String, Optional<Boolean>>> votes) {
+        assert null != votes;
+        Set<String> existing = new HashSet<>();
+        charityRepository.findAllById(votes.stream().map(Map.Entry::getKey).distinct().toList())
+            .forEach(c -> existing.add(c.getOrgID()));
+        List<Map.Entry<String, Optional<Boolean>>> valid = votes.stream()
+            .filter(v -> existing.contains(v.getKey()))
+            .toList();
+        Iterator<VoteBuffer.Result> results = voteWriter.voteAll(UserUtil.getUsername(), valid).iterator();
+        return votes.stream()
+            .map(v -> existing.contains(v.getKey()) ? results.next() : VoteBuffer.Result.INVALID)
+            .toList();
+    }
+
+    /**
+     * Gets the details of a charity (as served by the charity page), from the cache if possible.
+     * @param orgId Identifier of the charity organization.
+     * @return The details (shared, callers must copy them before making changes), or Optional.empty()
+     * if there is no such charity.
+     */
+    public Optional<JsonNode> getDetails(String orgId) {
+        assert null != orgId;
+        try {
+            return Optional.of(details.get(orgId, id -> charityDataRepository.findById(id)
+                .map(CharityData::toJson)
+                .orElseThrow(() -> new NoSuchElementException("No such charity."))));
+        } catch (NoSuchElementException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the cache of charity details.
+     */
+    public ReadThroughCache<String, JsonNode> getDetailsCache() {
+        return details;
+    }
+
+    @EventListener
+    public void onVotesWritten(VotesWritten event) {
+        event.deltas().keySet().forEach(details::invalidate);
+    }
+
     /**
      * Find a charity based on it's orgId
      * @param orgId Identfier of the charity organization.
@@ -52,44 +155,39 @@ public class CharitiesAdapter {
      * Registers a vote from the user on the charity.
      * @param charity the charity that is being voted on.
      * @param value Whether the user voted up or down.
-     * @return True if the vote was inserted.
+     * @return Whether the vote was accepted (INVALID if the charity does not exist).
      */
-    public boolean vote(String charity, boolean value) {
-        try {
-            scoresRepository.save(new CharityVote(UserUtil.getUsername(), charity, value));        
-        } catch (Exception e){
-            return false;
-        }
-        return true;
+    public VoteBuffer.Result vote(String charity, boolean value) {
+        return setVote(charity, Optional.of(value));
     }
 
     /**
      * Change the value of a vote made by this user.
      * @param charity Charity that was voted on.
      * @param value New value of the vote.
-     * @return True if successful
+     * @return Whether the vote was accepted (INVALID if the charity does not exist).
      */
-    public boolean editVote(String charity, boolean value) {
-        try {
-            scoresRepository.save(new CharityVote(UserUtil.getUsername(), charity, value));
-        } catch (Exception ex) {
-            return false;
-        }
-        return true;
+    public VoteBuffer.Result editVote(String charity, boolean value) {
+        return setVote(charity, Optional.of(value));
     }
 
     /**
      * Remove a vote made by the current user.
      * @param charity Charity that was voted on. 
-     * @return True if successful.
+     * @return Whether the vote was accepted (INVALID if the charity does not exist).
      */
-    public boolean deleteVote(String charity) {
-        try {
-            scoresRepository.deleteById(new CharityVoteKey(UserUtil.getUsername(), charity));
-        } catch (Exception ex) {
-            return false;
-        }
-        return true;
+    public VoteBuffer.Result deleteVote(String charity) {
+        return setVote(charity, Optional.empty());
+    }
+
+    /**
+     * Gets the vote of the current user on a charity, including a vote not yet written.
+     * @param charity Charity that was voted on.
+     * @return True if the user voted up, false if down, or Optional.empty() if the user has not voted.
+     */
+    public Optional<Boolean> getVote(String charity) {
+        assert null != charity;
+        return voteWriter.getVote(UserUtil.getUsername(), charity);
     }
 
     /**
@@ -103,6 +201,8 @@ public class CharitiesAdapter {
             if (admin.isEmpty() || admin.get().getLevel() < Administrator.PAUSE_CHARITY_LEVEL)
                 return false;
             pausedCharitiesRepository.save(new PausedCharity(charity_id, UserUtil.getUsername()));            
+            details.invalidate(charity_id);
+            facets.setPaused(charity_id, true);
         } catch (Exception ex) {
             return false;
         }
@@ -121,6 +221,8 @@ public class CharitiesAdapter {
             if (admin.isEmpty() || admin.get().getLevel() < Administrator.PAUSE_CHARITY_LEVEL)
                 return false;
             pausedCharitiesRepository.deleteById(charity_id);
+            details.invalidate(charity_id);
+            facets.setPaused(charity_id, false);
         } catch (Exception ex) {
             return false;
         }
@@ -129,21 +231,32 @@ public class CharitiesAdapter {
 
     /**
      * Register search entries for a charities searched by a user (but not visited).
+     * Entries are written in the background, and may be shed under load.
      * @param charities Charities to add to the search entry.
      */
     public void addSkimSearchEntries(Collection<Charity> charities) {
+        addSkimSearchEntries(UserUtil.getUsername(), charities);
+    }
+
+    /**
+     * Register search entries for a charities searched by a user (but not visited).
+     * Entries are written in the background, and may be shed under load.
+     * @param username User that searched for the charities.
+     * @param charities Charities to add to the search entry.
+     */
+    public void addSkimSearchEntries(String username, Collection<Charity> charities) {
+        assert null != username;
         assert null != charities;
-        searchedCharities.saveAll(charities.stream()
-            .map(c -> new SearchedCharity(UserUtil.getUsername(), c.getOrgID()))
-            .toList());
+        charities.forEach(c -> searchHistory.add(username, c.getOrgID(), false));
     }
 
     /**
      * Register a new search entry into the charities visited, and viewed by a user.
+     * The entry is written in the background, and may be shed under load.
      * @param charity Charity to add.
      */
     public void addSearchEntry(Charity charity) {
         assert null != charity;
-        searchedCharities.save(new SearchedCharity(UserUtil.getUsername(), charity.getOrgID(), true));
+        searchHistory.add(UserUtil.getUsername(), charity.getOrgID(), true);
     }
 }
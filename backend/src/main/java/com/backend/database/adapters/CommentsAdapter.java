@@ -3,19 +3,33 @@ package com.backend.database.adapters;
 import com.backend.database.repositories.*;
 import com.backend.database.entities.*;
 import com.backend.database.entities.keys.*;
+import com.backend.ApplicationProperties;
+import com.backend.database.comments.CommentIdAllocator;
+import com.backend.database.comments.RecentComments;
+import com.backend.database.filtering.Cursor;
 import com.backend.database.filtering.Filter;
 import com.backend.database.filtering.FilterBuilder;
 import com.backend.database.filtering.FilteredQuery;
 import com.backend.database.filtering.JsonToFilterConverter;
+import com.backend.database.filtering.Limits;
+import com.backend.database.filtering.Ordering;
+import com.backend.database.filtering.QuerySpec;
+import com.backend.database.filtering.ResultPage;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 /**
@@ -37,24 +51,43 @@ public class CommentsAdapter {
     private CommentBlameRepository commentBlameRepository;
 
     @Autowired
-    private NextCommentIdRepository nextCommentIdRepository;
+    private CommentIdAllocator commentIdAllocator;
+
+    @Autowired
+    private CommentScoresRepository commentScoresRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    private RecentComments recent;
+
+    @PostConstruct
+    public void init() {
+        ApplicationProperties.CommentProperties comments = properties.getComments();
+        recent = new RecentComments(comments.getRecentSize(), comments.getRecentMaxBytes(), comments.getRecentTimeToLive());
+    }
 
     /**
-     * Register a new comment in the DB.
+     * Register a new comment in the DB. The id of the comment is allocated by @see{CommentIdAllocator}.
      * @param comment The comment contents to add.
      * @param user The commenting user.
      * @param charity Charity being commented on.
      * @return True if the comment was inserted.
      */
     public boolean add(JsonNode comment, String user, String charity) {
+        Comment record;
         try {
-            int nextId = nextCommentIdRepository.findById(charity)
-                    .orElseThrow(() -> new RuntimeException("Failed to get next id.")).getId();
-            Comment record = new Comment(nextId, charity, comment, user);
-            commentsRepository.save(record);
+            int nextId = commentIdAllocator.next(charity);
+            record = new Comment(nextId, charity, comment, user, new Timestamp(System.currentTimeMillis()));
+            commentsRepository.insert(nextId, charity, record.getRawComment(), user, record.getInsertTime());
         } catch (Exception ex) {
             return false;
         }
+        FilteredQuery<Comment> query = new FilteredQuery<>(entityManager, Comment.class);
+        recent.add(charity, entry(query, timelineSpec(query, charity, recent.getSize(), Optional.empty()), record));
         return true;
     }
 
@@ -69,10 +102,81 @@ public class CommentsAdapter {
             commentsRepository.deleteById(new CommentKey(commentId, charity));
         } catch (Exception ex) {
             return false;
+        } finally {
+            recent.invalidate(charity);
         }
         return true;
     }
 
+    private static long count(Optional<Boolean> vote, boolean up) {
+        return vote.isPresent() && vote.get() == up ? 1 : 0;
+    }
+
+    /**
+     * Replaces the vote of a user on a comment, and the vote counts of the comment with it.
+     * @param commentId Identifier of the comment voted on.
+     * @param charity Charity that was commented on.
+     * @param user User that votes.
+     * @param value New value of the vote, or Optional.empty() to remove it.
+     * @return True if successful.
+     */
+    private boolean setVote(int commentId, String charity, String user, Optional<Boolean> value) {
+        assert null != charity;
+        assert null != user;
+        Boolean changed;
+        try {
+            changed = new TransactionTemplate(transactionManager).execute(status -> {
+                // Votes on the comment (and its recount) wait for this one, so the old vote stays current.
+                if (commentsRepository.lock(commentId, charity).isEmpty())
+                    return null;
+                Optional<Boolean> old = commentScoresRepository.findById(new CommentScoreKey(commentId, charity, user))
+                    .map(CommentScore::votedUp);
+                if (old.equals(value))
+                    return false;
+                int written = value.isPresent()
+                    ? commentScoresRepository.upsertVote(commentId, charity, user, value.get())
+                    : commentScoresRepository.removeVote(commentId, charity, user);
+                if (0 == written)
+                    return false;
+                commentsRepository.addScores(commentId, charity,
+                    count(value, true) - count(old, true),
+                    count(value, false) - count(old, false));
+                return true;
+            });
+        } catch (Exception ex) {
+            return false;
+        }
+        if (null == changed)
+            return false;
+        // Cached comments carry their scores.
+        if (changed)
+            recent.invalidate(charity);
+        return true;
+    }
+
+    /**
+     * Registers (or changes) a vote of a user on a comment.
+     * @param commentId Identifier of the comment voted on.
+     * @param charity Charity that was commented on.
+     * @param user User that votes.
+     * @param up Whether the user voted the comment up or down.
+     * @return True if successful.
+     */
+    public boolean vote(int commentId, String charity, String user, boolean up) {
+        return setVote(commentId, charity, user, Optional.of(up));
+    }
+
+    /**
+     * Removes the vote of a user on a comment.
+     * @param commentId Identifier of the comment voted on.
+     * @param charity Charity that was commented on.
+     * @param user User that voted.
+     * @return True if successful (whether or not the user had voted).
+     */
+    public boolean deleteVote(int commentId, String charity, String user) {
+        return setVote(commentId, charity, user, Optional.empty());
+    }
+
     /**
      * Register a blame sent by a user to a particular comment.
      * @param commentId Identifier of the blamed comment.
@@ -116,4 +220,55 @@ public class CommentsAdapter {
                 fb.equalTo("commentUser", forUser),
                 filter)));
     }
+
+    private static RecentComments.Entry entry(FilteredQuery<Comment> query, QuerySpec<Comment> spec, Comment comment) {
+        return new RecentComments.Entry(comment.toJson().toString(), query.cursorAfter(spec, comment),
+            comment.getInsertTime(), comment.getCommentId());
+    }
+
+    private static QuerySpec<Comment> timelineSpec(FilteredQuery<Comment> query, String charity, int count, Optional<Cursor> after) {
+        return new QuerySpec<>(
+            Optional.of(query.getFilterBuilder().equalTo("charity", charity)),
+            Ordering.descending("insertTime"),
+            new Limits(count, 0, after));
+    }
+
+    private RecentComments.Load loadRecent(String charity) {
+        FilteredQuery<Comment> query = new FilteredQuery<>(entityManager, Comment.class);
+        QuerySpec<Comment> spec = timelineSpec(query, charity, recent.getSize(), Optional.empty());
+        ResultPage<Comment> page = query.runPageAhead(spec);
+        List<RecentComments.Entry> entries = new ArrayList<>(page.results().size());
+        for (Comment comment : page.results())
+            entries.add(entry(query, spec, comment));
+        return new RecentComments.Load(entries, page.next().isPresent());
+    }
+
+    /**
+     * Get a page of the comments on a charity, newest first.
+     * <p>
+     * Pages are read from the CommentsTimeline index with a cursor, so every page costs the same
+     * however far back it is, and the cursor to the next page is only returned if there are older comments.
+     * The first page of a charity is served from memory once read (see @see{RecentComments}).
+     * @param charity Charity to get the comments of.
+     * @param count Maximum number of comments in the page.
+     * @param after Cursor returned with the previous page, or Optional.empty() for the newest comments.
+     * @return The page of comments, as json.
+     * @throws IllegalArgumentException Thrown if the cursor is not a timeline cursor.
+     */
+    public ResultPage<JsonNode> getTimeline(String charity, int count, Optional<Cursor> after) throws IllegalArgumentException {
+        assert null != charity;
+        assert null != after;
+        if (after.isEmpty() && count <= recent.getSize())
+            return recent.get(charity, count, () -> loadRecent(charity));
+        FilteredQuery<Comment> query = new FilteredQuery<>(entityManager, Comment.class);
+        ResultPage<Comment> page = query.runPageAhead(timelineSpec(query, charity, count, after));
+        return new ResultPage<>(page.results().stream().map(Comment::toJson).toList(), page.next());
+    }
+
+    /**
+     * Gets the cache of the newest comments of charities.
+     */
+    public RecentComments getRecentComments() {
+        return recent;
+    }
 }
@@ -0,0 +1,77 @@
+package com.backend.database.comments;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.backend.ApplicationProperties;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Allocates comment ids from the CommentIdCounters table.
+ * <p>
+ * A block of ids is reserved with a single UPDATE ... RETURNING on the counter of the charity, and
+ * handed out from memory by @see{CommentIdBlocks}. The counter of a charity is created from the
+ * largest id of its comments the first time one of its ids is reserved, which is the only time
+ * the comments are read.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+@Component
+public class CommentIdAllocator {
+
+    private static final String RESERVE =
+        "UPDATE CommentIdCounters SET nextId = nextId + ? WHERE charity = ? RETURNING nextId";
+
+    private static final String INITIALIZE = """
+        INSERT INTO CommentIdCounters(charity, nextId)
+            SELECT ?, COALESCE(MAX(commentId), 0) + 1
+                FROM Comments
+                WHERE charity = ?
+        ON CONFLICT (charity) DO NOTHING
+        """;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CommentIdBlocks blocks;
+
+    @PostConstruct
+    public void init() {
+        blocks = new CommentIdBlocks(properties.getComments().getIdBlockSize(), this::reserve);
+    }
+
+    private int reserve(String charity, int count) {
+        List<Integer> end = jdbcTemplate.queryForList(RESERVE, Integer.class, count, charity);
+        if (end.isEmpty()) {
+            jdbcTemplate.update(INITIALIZE, charity, charity);
+            end = jdbcTemplate.queryForList(RESERVE, Integer.class, count, charity);
+        }
+        if (end.isEmpty())
+            throw new IllegalStateException(String.format("Failed to reserve comment ids of charity \"%s\".", charity));
+        return end.get(0);
+    }
+
+    /**
+     * Gets a new comment id of a charity.
+     * @param charity The charity (must exist).
+     * @return An id no other comment of the charity has, or had.
+     */
+    public int next(String charity) {
+        return blocks.next(charity);
+    }
+
+    /**
+     * Gets the allocator that hands out reserved ids.
+     */
+    public CommentIdBlocks getBlocks() {
+        return blocks;
+    }
+}
@@ -0,0 +1,121 @@
+package com.backend.database.comments;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Hands out comment ids per charity from blocks reserved in advance.
+ * <p>
+ * Every charity has a block of ids [next, end) in memory. Ids are taken from the block without
+ * touching the database; when it runs out, a new block is reserved through a @see{Reserver}, which
+ * never hands out an id twice (across instances as well). Ids of a block that is not used up before
+ * the application stops are skipped, so ids are unique and increasing per instance, but not gapless.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public class CommentIdBlocks {
+
+    /**
+     * Reserves blocks of ids.
+     */
+    @FunctionalInterface
+    public interface Reserver {
+
+        /**
+         * Reserves the next count ids of a charity.
+         * @param charity The charity.
+         * @param count Number of ids to reserve.
+         * @return The id after the last id reserved (the block is [end - count, end)).
+         */
+        int reserve(String charity, int count);
+    }
+
+    private static final class Block {
+
+        private int next = 0;
+        private int end = 0;
+    }
+
+    private final int blockSize;
+    private final Reserver reserver;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder reserved = new LongAdder();
+
+    /**
+     * Create a new allocator.
+     * @param blockSize Number of ids reserved at a time.
+     * @param reserver Reserves blocks of ids.
+     */
+    public CommentIdBlocks(int blockSize, Reserver reserver) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive.");
+        assert null != reserver;
+        this.blockSize = blockSize;
+        this.reserver = reserver;
+    }
+
+    /**
+     * Gets the next id of a charity, reserving a new block if needed.
+     * @param charity The charity.
+     * @return A comment id that was never handed out before.
+     */
+    public int next(String charity) {
+        assert null != charity;
+        Block block = blocks.computeIfAbsent(charity, c -> new Block());
+        synchronized (block) {
+            if (block.next >= block.end) {
+                int end;
+                try {
+                    end = reserver.reserve(charity, blockSize);
+                } catch (RuntimeException ex) {
+                    // Do not keep an empty block around for charities that do not exist.
+                    blocks.remove(charity, block);
+                    throw ex;
+                }
+                block.end = end;
+                block.next = end - blockSize;
+                reserved.increment();
+            }
+            allocated.increment();
+            return block.next++;
+        }
+    }
+
+    /**
+     * Forgets the reserved ids of every charity. The ids are skipped.
+     */
+    public void clear() {
+        blocks.clear();
+    }
+
+    /**
+     * Gets the number of ids handed out.
+     */
+    public long getAllocated() {
+        return allocated.sum();
+    }
+
+    /**
+     * Gets the number of blocks reserved.
+     */
+    public long getReserved() {
+        return reserved.sum();
+    }
+
+    /**
+     * Gets runtime statistics of the allocator.
+     */
+    public JsonNode toJson() {
+        return JsonNodeFactory.instance.objectNode()
+            .put("charities", blocks.size())
+            .put("blockSize", blockSize)
+            .put("allocated", getAllocated())
+            .put("reserved", getReserved());
+    }
+}
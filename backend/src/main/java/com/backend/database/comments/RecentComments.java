@@ -0,0 +1,362 @@
+package com.backend.database.comments;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.backend.database.filtering.Cursor;
+import com.backend.database.filtering.ResultPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * In-memory first pages of the comment timelines of charities.
+ * <p>
+ * Every cached charity has a ring buffer of its newest comments (at most @see{#getSize}), already
+ * serialized, each with the cursor that continues the timeline after it. A charity is loaded on the
+ * first read of its first page, new comments are pushed into its buffer as they are added, and
+ * the buffer is dropped when a comment changes or is removed. Buffers are evicted least recently
+ * read first once the serialized comments of all charities take more than a memory budget.
+ * <p>
+ * Buffers expire a fixed time after they were loaded, which bounds how long comments written by
+ * other instances of the application can be missing.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public class RecentComments {
+
+    private static final long ENTRY_BYTES = 64;
+    private static final long RING_BYTES = 128;
+
+    /**
+     * A cached comment.
+     * @param json The serialized comment.
+     * @param cursor Cursor to the comments after this one, or Optional.empty() if the timeline can not continue after it.
+     * @param insertTime Time the comment was added.
+     * @param commentId Identifier of the comment, which orders comments added at the same time.
+     */
+    public record Entry(String json, Optional<Cursor> cursor, Timestamp insertTime, int commentId) {
+
+        public Entry {
+            assert null != json;
+            assert null != cursor;
+            assert null != insertTime;
+        }
+
+        /**
+         * True if the comment comes before another one in the timeline (newest first).
+         */
+        private boolean isNewerThan(Entry other) {
+            int order = insertTime.compareTo(other.insertTime);
+            return order > 0 || (0 == order && commentId > other.commentId);
+        }
+
+        /**
+         * Approximate number of bytes the entry takes.
+         */
+        private long bytes() {
+            return ENTRY_BYTES + 2L * json.length();
+        }
+    }
+
+    /**
+     * Newest comments of a charity, as loaded from the database.
+     * @param entries Comments, newest first.
+     * @param older True if the charity has comments older than the last entry.
+     */
+    public record Load(List<Entry> entries, boolean older) {
+
+        public Load {
+            assert null != entries;
+        }
+    }
+
+    private static final class Ring {
+
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        private final long loadedAt;
+        private boolean older;
+        private long bytes = RING_BYTES;
+
+        private Ring(long loadedAt, boolean older) {
+            this.loadedAt = loadedAt;
+            this.older = older;
+        }
+
+        /**
+         * Pushes a newer comment, dropping the oldest if the ring is full.
+         * @return Change in the number of bytes taken.
+         */
+        private long push(Entry entry, int size) {
+            long before = bytes;
+            entries.addFirst(entry);
+            bytes += entry.bytes();
+            while (entries.size() > size) {
+                bytes -= entries.removeLast().bytes();
+                older = true;
+            }
+            return bytes - before;
+        }
+    }
+
+    /**
+     * Marks a load in progress as outdated when the timeline changes before it is installed.
+     */
+    private static final class Ticket {
+
+        private boolean stale = false;
+        private int loads = 0;
+    }
+
+    private final int size;
+    private final long maxBytes;
+    private final long timeToLive;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Ring> rings = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Ticket> loading = new HashMap<>();
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    /**
+     * Create a new cache.
+     * @param size Number of comments kept per charity.
+     * @param maxBytes Approximate memory budget of all cached comments.
+     * @param timeToLive Time comments are kept after they were loaded.
+     */
+    public RecentComments(int size, long maxBytes, Duration timeToLive) {
+        this(size, maxBytes, timeToLive, System::nanoTime);
+    }
+
+    /**
+     * Create a new cache.
+     * @param size Number of comments kept per charity.
+     * @param maxBytes Approximate memory budget of all cached comments.
+     * @param timeToLive Time comments are kept after they were loaded.
+     * @param clock Source of the current time in nanoseconds.
+     */
+    public RecentComments(int size, long maxBytes, Duration timeToLive, LongSupplier clock) {
+        if (size < 1)
+            throw new IllegalArgumentException("Size must be positive.");
+        if (maxBytes < 1)
+            throw new IllegalArgumentException("Memory budget must be positive.");
+        if (timeToLive.isNegative() || timeToLive.isZero())
+            throw new IllegalArgumentException("Time to live must be positive.");
+        assert null != clock;
+        this.size = size;
+        this.maxBytes = maxBytes;
+        this.timeToLive = timeToLive.toNanos();
+        this.clock = clock;
+    }
+
+    private Ring ring(Load load, long loadedAt) {
+        Ring ring = new Ring(loadedAt, load.older());
+        List<Entry> entries = load.entries();
+        for (int i = entries.size() - 1; i >= 0; --i)
+            ring.push(entries.get(i), size);
+        return ring;
+    }
+
+    private void drop(String charity) {
+        Ring ring = rings.remove(charity);
+        if (null != ring)
+            bytes -= ring.bytes;
+    }
+
+    /**
+     * Evicts the least recently read charities until the cache is within its memory budget.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Ring>> eldest = rings.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+            ++evictions;
+        }
+    }
+
+    private static ResultPage<JsonNode> page(Ring ring, int count) {
+        JsonNodeFactory jb = JsonNodeFactory.instance;
+        List<JsonNode> results = new ArrayList<>(Math.min(count, ring.entries.size()));
+        Entry last = null;
+        for (Entry entry : ring.entries) {
+            if (results.size() == count)
+                return new ResultPage<>(results, last.cursor());
+            results.add(jb.pojoNode(new RawValue(entry.json())));
+            last = entry;
+        }
+        return new ResultPage<>(results, ring.older && null != last ? last.cursor() : Optional.empty());
+    }
+
+    private synchronized Optional<ResultPage<JsonNode>> lookup(String charity, int count) {
+        Ring ring = rings.get(charity);
+        if (null != ring && clock.getAsLong() - ring.loadedAt > timeToLive) {
+            drop(charity);
+            ring = null;
+        }
+        if (null == ring) {
+            ++misses;
+            loading.computeIfAbsent(charity, c -> new Ticket()).loads++;
+            return Optional.empty();
+        }
+        ++hits;
+        return Optional.of(page(ring, count));
+    }
+
+    private synchronized void install(String charity, Optional<Load> load) {
+        Ticket ticket = loading.get(charity);
+        boolean stale = null == ticket || ticket.stale;
+        if (null != ticket && 0 == --ticket.loads)
+            loading.remove(charity);
+        if (stale || load.isEmpty() || rings.containsKey(charity))
+            return;
+        Ring ring = ring(load.get(), clock.getAsLong());
+        rings.put(charity, ring);
+        bytes += ring.bytes;
+        evict();
+    }
+
+    /**
+     * Gets the newest comments of a charity, loading them if they are not cached.
+     * @param charity The charity.
+     * @param count Number of comments to get, at most @see{#getSize}.
+     * @param loader Loads the newest @see{#getSize} comments of the charity. Exceptions thrown are passed on, and nothing is cached.
+     * @return The comments, newest first, as raw json, and the cursor to the older comments.
+     */
+    public ResultPage<JsonNode> get(String charity, int count, Supplier<Load> loader) {
+        assert null != charity;
+        assert null != loader;
+        if (count < 1 || count > size)
+            throw new IllegalArgumentException(String.format("Expected between 1 and %d comments.", size));
+        Optional<ResultPage<JsonNode>> cached = lookup(charity, count);
+        if (cached.isPresent())
+            return cached.get();
+        Optional<Load> load = Optional.empty();
+        try {
+            load = Optional.of(loader.get());
+        } finally {
+            install(charity, load);
+        }
+        return page(ring(load.get(), 0), count);
+    }
+
+    /**
+     * Adds a new comment of a charity (if the charity is cached).
+     * <p>
+     * Comments added concurrently may be added out of order. A comment that is not newer than the
+     * newest comment cached drops the comments of the charity instead, so that the next read loads them
+     * again in order.
+     * @param charity The charity.
+     * @param entry The comment.
+     */
+    public synchronized void add(String charity, Entry entry) {
+        assert null != charity;
+        assert null != entry;
+        Ticket ticket = loading.get(charity);
+        if (null != ticket)
+            ticket.stale = true;
+        Ring ring = rings.get(charity);
+        if (null == ring)
+            return;
+        if (!ring.entries.isEmpty() && !entry.isNewerThan(ring.entries.peekFirst())) {
+            drop(charity);
+            ++invalidations;
+            return;
+        }
+        bytes += ring.push(entry, size);
+        evict();
+    }
+
+    /**
+     * Drops the comments of a charity, so that the next read loads them again.
+     */
+    public synchronized void invalidate(String charity) {
+        assert null != charity;
+        Ticket ticket = loading.get(charity);
+        if (null != ticket)
+            ticket.stale = true;
+        if (rings.containsKey(charity)) {
+            drop(charity);
+            ++invalidations;
+        }
+    }
+
+    /**
+     * Drops the comments of every charity.
+     */
+    public synchronized void clear() {
+        loading.values().forEach(t -> t.stale = true);
+        rings.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Gets the number of comments kept per charity.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the approximate number of bytes taken by the cached comments.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the number of charities cached.
+     */
+    public synchronized int getCharities() {
+        return rings.size();
+    }
+
+    /**
+     * Gets the number of reads served from the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of reads that loaded the comments.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of charities evicted to stay within the memory budget.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Convert the cache statistics to their json representation.
+     */
+    public synchronized JsonNode toJson() {
+        return JsonNodeFactory.instance.objectNode()
+            .put("size", size)
+            .put("maxBytes", maxBytes)
+            .put("bytes", bytes)
+            .put("charities", rings.size())
+            .put("hits", hits)
+            .put("misses", misses)
+            .put("evictions", evictions)
+            .put("invalidations", invalidations);
+    }
+}
@@ -0,0 +1,32 @@
+package com.backend.database.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Represents an entry in the CharityClasses table (a category charities can be classified into).
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-16
+ */
+@Entity
+@Table(name="charityclasses")
+public class CharityClass {
+
+    @Id
+    @Column(name="classname")
+    private String className;
+
+    protected CharityClass() {}
+
+    public CharityClass(String className) {
+        assert null != className;
+        this.className = className;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+}
@@ -0,0 +1,46 @@
+package com.backend.database.entities;
+
+import com.backend.database.entities.keys.CharityClassificationKey;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Represents an entry in the CharityClassifications table (a charity belonging to a class).
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-16
+ */
+@Entity
+@IdClass(CharityClassificationKey.class)
+@Table(name="charityclassifications")
+public class CharityClassification {
+
+    @Id
+    @Column(name="charity")
+    private String charity;
+
+    @Id
+    @Column(name="class")
+    private String className;
+
+    protected CharityClassification() {}
+
+    public CharityClassification(String charity, String className) {
+        assert null != charity;
+        assert null != className;
+        this.charity = charity;
+        this.className = className;
+    }
+
+    public String getCharity() {
+        return charity;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+}
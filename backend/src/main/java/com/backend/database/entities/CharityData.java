@@ -1,5 +1,6 @@
 package com.backend.database.entities;
 
+import com.backend.database.filtering.Searchable;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
@@ -10,6 +11,7 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name="charitydata")
+@Searchable("searchvector")
 public class CharityData {
     
     @Id
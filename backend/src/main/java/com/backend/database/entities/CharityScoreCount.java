@@ -0,0 +1,48 @@
+package com.backend.database.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Represents an entry in the CharityScoreCounts table (vote counts of a charity).
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-10
+ */
+@Entity
+@Table(name="charityscorecounts")
+public class CharityScoreCount {
+
+    @Id
+    @Column(name="charity")
+    private String charity;
+
+    @Column(name="positivescore")
+    private long positiveScore;
+
+    @Column(name="negativescore")
+    private long negativeScore;
+
+    @Column(name="totalscore", insertable = false, updatable = false)
+    private long totalScore;
+
+    protected CharityScoreCount() {}
+
+    public String getCharity() {
+        return charity;
+    }
+
+    public long getPositiveScore() {
+        return positiveScore;
+    }
+
+    public long getNegativeScore() {
+        return negativeScore;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+}
@@ -9,26 +9,40 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 
 /**
  * Represents an entry in the Comments table.
+ * <p>
+ * The comment contents are stored as jsonb, and kept as the json text read from the database so
+ * that responses can write them as they are, without parsing them.
  * @author JaarmaCo
  * @version 1.0
  * @since 2025-09-18
  */
 @Entity
 @IdClass(CommentKey.class)
-@Table(name="comments")
+@Table(name="comments", indexes = {
+    @Index(name="commentstimeline", columnList="charity, inserttime DESC, commentid DESC"),
+    @Index(name="commentsscore", columnList="score, charity, commentid"),
+    @Index(name="commentscharityscore", columnList="charity, score, commentid")
+})
 public class Comment {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     @Id
     @Column(name="charity")
     private String charity;
@@ -37,7 +51,8 @@ public class Comment {
     @Column(name="commentid")
     private int commentId;
 
-    @Column(name="comment")
+    @Column(name="comment", columnDefinition="jsonb")
+    @JdbcTypeCode(SqlTypes.JSON)
     private String comment;
 
     @Column(name="commentuser")
@@ -47,6 +62,15 @@ public class Comment {
     @Temporal(TemporalType.TIMESTAMP)
     private Timestamp insertTime;
 
+    @Column(name="positivescore", insertable = false, updatable = false)
+    private long positiveScore;
+
+    @Column(name="negativescore", insertable = false, updatable = false)
+    private long negativeScore;
+
+    @Column(name="score", insertable = false, updatable = false)
+    private long score;
+
     protected Comment() {}
 
     /**
@@ -66,6 +90,20 @@ public class Comment {
         this.commentUser = commentUser;
     }
 
+    /**
+     * Create a new comment, inserted at a known time.
+     * @param commentId Identifier of the comment.
+     * @param charity Charity the comment is directed at.
+     * @param comment The comment contents.
+     * @param commentUser User that sent the comment.
+     * @param insertTime Time the comment is inserted at.
+     */
+    public Comment(int commentId, String charity, JsonNode comment, String commentUser, Timestamp insertTime) {
+        this(commentId, charity, comment, commentUser);
+        assert null != insertTime;
+        this.insertTime = insertTime;
+    }
+
     public int getCommentId() {
         return commentId;
     }
@@ -74,14 +112,24 @@ public class Comment {
         return charity;
     }
 
+    /**
+     * Gets the comment contents, parsed. Prefer @see{#getRawComment} where the contents are only written out.
+     */
     public JsonNode getComment() {
         try {
-            return new ObjectMapper().readTree(comment);
+            return mapper.readTree(comment);
         } catch (JsonProcessingException ex) {
             throw new RuntimeException("Unexpected processing error in validated JSON.");
         }
     }
 
+    /**
+     * Gets the comment contents as json text.
+     */
+    public String getRawComment() {
+        return comment;
+    }
+
     public String getCommentUser() {
         return commentUser;
     }
@@ -90,6 +138,21 @@ public class Comment {
         return insertTime;
     }
 
+    public long getPositiveScore() {
+        return positiveScore;
+    }
+
+    public long getNegativeScore() {
+        return negativeScore;
+    }
+
+    /**
+     * Gets the number of up votes minus the number of down votes of the comment.
+     */
+    public long getScore() {
+        return score;
+    }
+
     public void setCommentId(int id) {
         this.commentId = id;
     }
@@ -109,13 +172,20 @@ public class Comment {
         this.commentUser = user;
     }
 
+    /**
+     * Convert to json. The comment contents are written as they are stored, not re-serialized.
+     */
     public JsonNode toJson() {
-        return JsonNodeFactory.instance.objectNode()
+        JsonNodeFactory jb = JsonNodeFactory.instance;
+        return jb.objectNode()
             .put("charity", charity)
             .put("commentId", commentId)
-            .put("comment", comment)
+            .putPOJO("comment", new RawValue(comment))
             .put("user", commentUser)
-            .put("insertTime", insertTime.getTime());
+            .put("insertTime", insertTime.getTime())
+            .put("positiveScore", positiveScore)
+            .put("negativeScore", negativeScore)
+            .put("score", score);
     }
 
     @Override
@@ -0,0 +1,74 @@
+package com.backend.database.entities;
+
+import com.backend.database.entities.keys.*;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Represents an entry in the CommentScores table (a vote of a user on a comment).
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-16
+ */
+@Entity
+@IdClass(CommentScoreKey.class)
+@Table(name="commentscores")
+public class CommentScore {
+
+    @Id
+    @Column(name="comment")
+    private int comment;
+
+    @Id
+    @Column(name="charity")
+    private String charity;
+
+    @Id
+    @Column(name="scoreuser")
+    private String user;
+
+    @Column(name="updown")
+    private boolean up;
+
+    protected CommentScore() {}
+
+    /**
+     * Create a new comment vote.
+     * @param comment Identifier of the comment voted on.
+     * @param charity Charity that was commented on.
+     * @param user User that votes.
+     * @param up Whether the user voted the comment up or down.
+     */
+    public CommentScore(int comment, String charity, String user, boolean up) {
+        assert null != charity;
+        assert null != user;
+        this.comment = comment;
+        this.charity = charity;
+        this.user = user;
+        this.up = up;
+    }
+
+    public int getComment() {
+        return comment;
+    }
+
+    public String getCharity() {
+        return charity;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public boolean votedUp() {
+        return up;
+    }
+
+    public void setVotedUp(boolean value) {
+        up = value;
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.database.entities.keys;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite primary key type for the CharityClassifications table.
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-16
+ */
+public class CharityClassificationKey implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1;
+
+    private String charity;
+    private String className;
+
+    protected CharityClassificationKey() {}
+
+    /**
+     * Create a new classification key.
+     * @param charity The charity that is classified.
+     * @param className The class the charity belongs to.
+     */
+    public CharityClassificationKey(String charity, String className) {
+        assert null != charity;
+        assert null != className;
+        this.charity = charity;
+        this.className = className;
+    }
+
+    public String getCharity() {
+        return charity;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setCharity(String charity) {
+        this.charity = charity;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof CharityClassificationKey key))
+            return false;
+        return Objects.equals(charity, key.charity) && Objects.equals(className, key.className);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(charity, className);
+    }
+}
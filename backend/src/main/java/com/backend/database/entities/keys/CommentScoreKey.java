@@ -0,0 +1,76 @@
+package com.backend.database.entities.keys;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite primary key type for the CommentScores table.
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-16
+ */
+public class CommentScoreKey implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1;
+
+    private Integer comment;
+    private String charity;
+    private String user;
+
+    protected CommentScoreKey() {}
+
+    /**
+     * Create a new comment score key.
+     * @param comment Identifier of the comment.
+     * @param charity Charity that was commented on.
+     * @param user User that voted on the comment.
+     */
+    public CommentScoreKey(int comment, String charity, String user) {
+        assert null != charity;
+        assert null != user;
+        this.comment = comment;
+        this.charity = charity;
+        this.user = user;
+    }
+
+    public int getComment() {
+        return comment;
+    }
+
+    public String getCharity() {
+        return charity;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setComment(int comment) {
+        this.comment = comment;
+    }
+
+    public void setCharity(String charity) {
+        assert null != charity;
+        this.charity = charity;
+    }
+
+    public void setUser(String user) {
+        assert null != user;
+        this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof CommentScoreKey key &&
+            Objects.equals(key.comment, comment) &&
+            Objects.equals(key.charity, charity) &&
+            Objects.equals(key.user, user);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(comment, charity, user);
+    }
+}
@@ -0,0 +1,99 @@
+package com.backend.database.facets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.backend.database.entities.CharityClass;
+import com.backend.database.entities.CharityClassification;
+import com.backend.database.filtering.FacetIndex;
+import com.backend.database.repositories.CharityClassesRepository;
+import com.backend.database.repositories.CharityClassificationsRepository;
+import com.backend.database.repositories.CharityRepository;
+import com.backend.database.repositories.PausedCharitiesRepository;
+
+/**
+ * Keeps the @see{FacetIndex} of charities in sync with the database.
+ * <p>
+ * Every class in CharityClasses is a facet of the charities classified into it, and the facet
+ * @see{#PAUSED} holds the paused charities. The index is loaded once the application is ready and
+ * reloaded on an interval (benesphere.facets.refresh-interval), picking up new charities and
+ * classifications. Charities paused or resumed through the application are updated right away.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+@Service
+public class CharityFacetService {
+
+    /**
+     * Name of the facet of paused charities (no class can have this name).
+     */
+    public static final String PAUSED = "paused";
+
+    private static final Logger log = LoggerFactory.getLogger(CharityFacetService.class);
+
+    @Autowired
+    private CharityRepository charityRepository;
+
+    @Autowired
+    private CharityClassesRepository classesRepository;
+
+    @Autowired
+    private CharityClassificationsRepository classificationsRepository;
+
+    @Autowired
+    private PausedCharitiesRepository pausedCharitiesRepository;
+
+    /**
+     * Loads the classes and the paused state of every charity from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${benesphere.facets.refresh-interval:PT5M}",
+        fixedDelayString = "${benesphere.facets.refresh-interval:PT5M}")
+    public synchronized void reload() {
+        try {
+            FacetIndex.Builder builder = new FacetIndex.Builder().facet(PAUSED);
+            charityRepository.findAllIds().forEach(builder::key);
+            for (CharityClass c : classesRepository.findAll()) {
+                if (PAUSED.equals(c.getClassName()))
+                    log.warn("Class \"{}\" is hidden by the facet of paused charities.", PAUSED);
+                else
+                    builder.facet(c.getClassName());
+            }
+            for (CharityClassification c : classificationsRepository.findAll()) {
+                if (!PAUSED.equals(c.getClassName()))
+                    builder.add(c.getClassName(), c.getCharity());
+            }
+            pausedCharitiesRepository.findAllIds().forEach(charity -> builder.add(PAUSED, charity));
+            FacetIndex index = builder.build();
+            FacetIndex.install(index);
+            log.info("Indexed {} facets of {} charities.", index.getFacets().size(), index.size());
+        } catch (RuntimeException ex) {
+            log.error("Failed to load the charity facets: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Updates the paused state of a charity in the index.
+     * @param charity The charity.
+     * @param paused True if the charity was paused, false if it was resumed.
+     */
+    public synchronized void setPaused(String charity, boolean paused) {
+        assert null != charity;
+        if (!FacetIndex.installed().getFacets().contains(PAUSED))
+            return; // Not loaded yet, the load reads the paused state from the database.
+        FacetIndex.install(FacetIndex.installed().with(PAUSED, charity, paused));
+    }
+
+    /**
+     * Gets the index currently in use.
+     */
+    public FacetIndex getIndex() {
+        return FacetIndex.installed();
+    }
+}
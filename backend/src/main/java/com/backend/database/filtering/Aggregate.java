@@ -0,0 +1,67 @@
+package com.backend.database.filtering;
+
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Aggregate computed over the results of a filtered query.
+ *
+ * @param function Function to apply.
+ * @param field Field the function is applied to (Optional.empty() counts rows).
+ * @param groupBy Field to group results by, or Optional.empty() for a single aggregate over all results.
+ */
+public record Aggregate(AggregateFunction function, Optional<String> field, Optional<String> groupBy) {
+
+    /**
+     * Aggregate that counts all results.
+     */
+    public static final Aggregate COUNT = new Aggregate(AggregateFunction.COUNT, Optional.empty(), Optional.empty());
+
+    /**
+     * Creates a new aggregate.
+     */
+    public Aggregate {
+        assert null != function;
+        assert null != field;
+        assert null != groupBy;
+        if (function.requiresField() && field.isEmpty())
+            throw new IllegalArgumentException(String.format("Aggregate \"%s\" requires a field.", function));
+    }
+
+    /**
+     * True if results are grouped.
+     */
+    public boolean isGrouped() {
+        return groupBy.isPresent();
+    }
+
+    /**
+     * Convert to Aggregate from the "aggregate" and "group_by" properties of a json query.
+     * <p>
+     * The aggregate is either the name of a function, or an object with the properties "function"
+     * and "field".
+     * @param aggregate Value of the "aggregate" property.
+     * @param groupBy Value of the "group_by" property (may be null).
+     */
+    public static Aggregate fromJson(JsonNode aggregate, JsonNode groupBy) {
+        AggregateFunction function;
+        Optional<String> field = Optional.empty();
+
+        if (aggregate.isTextual()) {
+            function = AggregateFunction.parse(aggregate.asText());
+        } else if (aggregate.isObject() && aggregate.has("function")) {
+            function = AggregateFunction.parse(aggregate.get("function").asText());
+            if (aggregate.has("field"))
+                field = Optional.of(aggregate.get("field").asText());
+        } else {
+            throw new IllegalArgumentException("Expected an aggregate function.");
+        }
+
+        if (null != groupBy && !groupBy.isTextual())
+            throw new IllegalArgumentException("Expected \"group_by\" to be a field name.");
+
+        return new Aggregate(function, field,
+            null == groupBy ? Optional.empty() : Optional.of(groupBy.asText()));
+    }
+}
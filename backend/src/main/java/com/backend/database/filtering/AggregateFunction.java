@@ -0,0 +1,77 @@
+package com.backend.database.filtering;
+
+import java.util.Optional;
+
+/**
+ * Enumerates the aggregate functions that may be applied to query results.
+ * @author JaarmaCo
+ * @since 2025-10-06
+ * @version 1.0
+ */
+public enum AggregateFunction {
+
+    /**
+     * Number of rows (or non-null values of a field).
+     */
+    COUNT,
+
+    /**
+     * Sum of a numeric field.
+     */
+    SUM,
+
+    /**
+     * Smallest value of a field.
+     */
+    MIN,
+
+    /**
+     * Largest value of a field.
+     */
+    MAX;
+
+    /**
+     * True if the function needs a field to aggregate over.
+     */
+    public boolean requiresField() {
+        return this != COUNT;
+    }
+
+    /**
+     * Gets the string representation of the function.
+     */
+    @Override
+    public String toString() {
+        return switch (this) {
+            case COUNT -> "count";
+            case SUM -> "sum";
+            case MIN -> "min";
+            case MAX -> "max";
+        };
+    }
+
+    /**
+     * Parses an aggregate function from the specified text.
+     * @param text Text to parse.
+     * @return The function refered to by the given text, or Optional.empty().
+     */
+    public static Optional<AggregateFunction> tryParse(String text) {
+        return switch (text) {
+            case "count" -> Optional.of(COUNT);
+            case "sum" -> Optional.of(SUM);
+            case "min" -> Optional.of(MIN);
+            case "max" -> Optional.of(MAX);
+            default -> Optional.empty();
+        };
+    }
+
+    /**
+     * Parses an aggregate function from the specified text.
+     * @param text Text to parse.
+     * @return The function refered to by the given text.
+     * @throws IllegalArgumentException Thrown text did not equal any of the enum string representations.
+     */
+    public static AggregateFunction parse(String text) throws IllegalArgumentException {
+        return tryParse(text).orElseThrow(() -> new IllegalArgumentException("Failed to parse enum."));
+    }
+}
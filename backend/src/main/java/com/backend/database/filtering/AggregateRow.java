@@ -0,0 +1,22 @@
+package com.backend.database.filtering;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A single result of a grouped aggregate query.
+ * @param group Value of the grouped field.
+ * @param value Aggregated value of the group.
+ */
+public record AggregateRow(Object group, Object value) {
+
+    /**
+     * Convert the row to it's json representation.
+     */
+    public JsonNode toJson() {
+        return JsonNodeFactory.instance.objectNode()
+            .<ObjectNode> set("group", FilteredQuery.toJsonValue(group))
+            .set("value", FilteredQuery.toJsonValue(value));
+    }
+}
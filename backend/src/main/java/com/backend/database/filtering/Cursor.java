@@ -0,0 +1,148 @@
+package com.backend.database.filtering;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Opaque position in an ordered query result, used for keyset (seek) pagination.
+ * <p>
+ * A cursor holds the sort key values of the last row of a page (the ordering keys followed
+ * by the primary key), so the next page can start with a (key, pk) > (?, ?) predicate
+ * instead of skipping rows with an offset.
+ * @author JaarmaCo
+ * @since 2025-10-03
+ * @version 1.0
+ */
+public final class Cursor {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String ordering;
+    private final ArrayNode values;
+
+    private Cursor(String ordering, ArrayNode values) {
+        assert null != ordering;
+        assert null != values;
+        this.ordering = ordering;
+        this.values = values;
+    }
+
+    private static JsonNode toJson(Object value) {
+        JsonNodeFactory jb = JsonNodeFactory.instance;
+        if (value instanceof Timestamp timestamp)
+            return jb.textNode(timestamp.toInstant().toString());
+        if (value instanceof String text)
+            return jb.textNode(text);
+        if (value instanceof Boolean bool)
+            return jb.booleanNode(bool);
+        if (value instanceof Integer number)
+            return jb.numberNode(number);
+        if (value instanceof Long number)
+            return jb.numberNode(number);
+        if (value instanceof Double number)
+            return jb.numberNode(number);
+        if (value instanceof Float number)
+            return jb.numberNode(number);
+        throw new IllegalArgumentException("Unsupported cursor key type.");
+    }
+
+    /**
+     * Create a cursor pointing at a row.
+     * @param ordering Signature of the ordering the keys were taken from.
+     * @param keys Sort key values of the row (ordering keys followed by the primary key).
+     */
+    /* package-private */ static Cursor of(String ordering, List<?> keys) {
+        ArrayNode values = JsonNodeFactory.instance.arrayNode();
+        for (Object key : keys) {
+            values.add(toJson(key));
+        }
+        return new Cursor(ordering, values);
+    }
+
+    /**
+     * Gets the signature of the ordering this cursor was created for.
+     */
+    /* package-private */ String getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Gets the number of key values in this cursor.
+     */
+    /* package-private */ int size() {
+        return values.size();
+    }
+
+    /**
+     * Gets a key value, converted to the type of the key.
+     * @param index Index of the key.
+     * @param type Java type of the field the key was taken from.
+     * @return The converted value.
+     */
+    /* package-private */ Object get(int index, Class<?> type) {
+        JsonNode value = values.get(index);
+        try {
+            if (type == String.class)
+                return value.asText();
+            if (type == Integer.class || type == int.class)
+                return value.intValue();
+            if (type == Long.class || type == long.class)
+                return value.longValue();
+            if (type == Boolean.class || type == boolean.class)
+                return value.booleanValue();
+            if (type == Double.class || type == double.class)
+                return value.doubleValue();
+            if (type == Float.class || type == float.class)
+                return value.floatValue();
+            if (Timestamp.class.isAssignableFrom(type))
+                return Timestamp.from(Instant.parse(value.asText()));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type.");
+    }
+
+    /**
+     * Gets the opaque token representation of this cursor.
+     */
+    public String encode() {
+        String json = JsonNodeFactory.instance.objectNode()
+            .put("o", ordering)
+            .set("v", values)
+            .toString();
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor from its token representation.
+     * @param token Token, as returned by @see{Cursor#encode}.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException Thrown if the token is not a valid cursor.
+     */
+    public static Cursor decode(String token) throws IllegalArgumentException {
+        assert null != token;
+        JsonNode json;
+        try {
+            json = mapper.readTree(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+        if (!json.isObject() || !json.path("o").isTextual() || !json.path("v").isArray())
+            throw new IllegalArgumentException("Malformed cursor.");
+        return new Cursor(json.get("o").asText(), (ArrayNode)json.get("v"));
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,118 @@
+package com.backend.database.filtering;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/**
+ * A field of an entity that can be filtered, sorted or selected on.
+ * @param name Name of the field, as declared by the entity.
+ * @param column Name of the column the field is mapped to.
+ * @param javaType Java type of the field (primitives are boxed).
+ * @param indexed True if the column is the leading column of an index (or the primary key).
+ * @param attribute The JPA attribute of the field (of a primary key field, for the unmapped search vector, see @see{Searchable}).
+ * @author JaarmaCo
+ * @since 2025-10-08
+ * @version 1.0
+ */
+public record EntityField(String name, String column, Class<?> javaType, boolean indexed, SingularAttribute<?, ?> attribute) {
+
+    /**
+     * True if the field holds text.
+     */
+    public boolean isText() {
+        return javaType == String.class;
+    }
+
+    /**
+     * True if values of the field can be ordered (and compared with less/greater).
+     */
+    public boolean isComparable() {
+        return Comparable.class.isAssignableFrom(javaType);
+    }
+
+    private IllegalArgumentException mismatch() {
+        return new IllegalArgumentException(String.format("Field \"%s\" expects a value of type %s.",
+            name, javaType.getSimpleName()));
+    }
+
+    private Object toNumber(BigDecimal value) {
+        try {
+            if (javaType == Integer.class)
+                return value.intValueExact();
+            if (javaType == Long.class)
+                return value.longValueExact();
+            if (javaType == Short.class)
+                return value.shortValueExact();
+            if (javaType == Byte.class)
+                return value.byteValueExact();
+            if (javaType == BigInteger.class)
+                return value.toBigIntegerExact();
+        } catch (ArithmeticException ex) {
+            throw mismatch();
+        }
+        if (javaType == Double.class)
+            return value.doubleValue();
+        if (javaType == Float.class)
+            return value.floatValue();
+        if (javaType == BigDecimal.class)
+            return value;
+        throw mismatch();
+    }
+
+    private Timestamp toTimestamp(Object value) {
+        if (value instanceof Number number)
+            return new Timestamp(number.longValue());
+        try {
+            return Timestamp.from(Instant.parse(value.toString()));
+        } catch (DateTimeParseException ex) {
+            try {
+                return Timestamp.valueOf(value.toString());
+            } catch (IllegalArgumentException ex2) {
+                throw mismatch();
+            }
+        }
+    }
+
+    /**
+     * Convert an operand to the type of the field.
+     * <p>
+     * Numbers are converted between numeric types (as long as no precision is lost), numbers and
+     * strings are parsed into each other, and timestamps are accepted as milliseconds since the
+     * epoch or as ISO-8601 instants.
+     * @param value The operand.
+     * @return The operand converted to javaType.
+     * @throws IllegalArgumentException Thrown if the operand can not be converted.
+     */
+    public Object coerce(Object value) throws IllegalArgumentException {
+        assert null != value;
+        if (javaType.isInstance(value))
+            return value;
+        if (javaType == String.class) {
+            if (value instanceof Number || value instanceof Boolean)
+                return value.toString();
+            throw mismatch();
+        }
+        if (javaType == Boolean.class) {
+            return switch (value.toString()) {
+                case "true" -> true;
+                case "false" -> false;
+                default -> throw mismatch();
+            };
+        }
+        if (javaType == Timestamp.class)
+            return toTimestamp(value);
+        if (Number.class.isAssignableFrom(javaType)) {
+            try {
+                return toNumber(new BigDecimal(value.toString()));
+            } catch (NumberFormatException ex) {
+                throw mismatch();
+            }
+        }
+        throw mismatch();
+    }
+}
@@ -0,0 +1,110 @@
+package com.backend.database.filtering;
+
+import java.util.BitSet;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Counts the results of a query into the facets and histogram buckets of a @see{FacetRequest}.
+ * <p>
+ * Every result is added once: its key is marked in a bitmap of the @see{FacetIndex}, and its value
+ * counted into its bucket. The facet counts are the sizes of the intersections of that bitmap with
+ * the bitmap of each facet, so counting does not grow with the number of facets per result.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public class FacetCounts {
+
+    private final FacetRequest request;
+    private final FacetIndex index;
+    private final BitSet results;
+    private final long[] buckets;
+    private long total = 0;
+
+    /**
+     * Create empty counts.
+     * @param request Facets and histogram to count.
+     * @param index Index holding the facets.
+     */
+    public FacetCounts(FacetRequest request, FacetIndex index) {
+        assert null != request;
+        assert null != index;
+        this.request = request;
+        this.index = index;
+        this.results = new BitSet(index.size());
+        this.buckets = new long[request.histogram().map(FacetRequest.Histogram::buckets).orElse(0)];
+    }
+
+    /**
+     * Adds a result.
+     * @param key Key of the result in the index (results missing from the index belong to no facet).
+     * @param value Value of the histogram field, if a histogram is requested.
+     */
+    public void add(String key, Optional<Number> value) {
+        assert null != key;
+        ++total;
+        index.idOf(key).ifPresent(results::set);
+        request.histogram().ifPresent(h -> value.ifPresent(v -> ++buckets[h.bucketOf(v.doubleValue())]));
+    }
+
+    /**
+     * Gets the number of results added.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the number of results added that belong to a facet.
+     */
+    public int count(String facet) {
+        return index.count(facet, results);
+    }
+
+    /**
+     * Gets the number of results added in a bucket of the histogram.
+     */
+    public long bucket(int bucket) {
+        return buckets[bucket];
+    }
+
+    /**
+     * Convert the counts to their json representation.
+     * @param complete False if not every result was added (the counts are a lower bound).
+     */
+    public JsonNode toJson(boolean complete) {
+        JsonNodeFactory jb = JsonNodeFactory.instance;
+        ObjectNode json = jb.objectNode()
+            .put("total", total)
+            .put("complete", complete);
+        if (!request.facets().isEmpty()) {
+            ArrayNode classes = json.putArray("classes");
+            for (String facet : request.facets()) {
+                classes.addObject()
+                    .put("class", facet)
+                    .put("count", count(facet));
+            }
+        }
+        request.histogram().ifPresent(h -> {
+            ArrayNode histogram = json.putArray("histogram");
+            for (int i = 0; i < buckets.length; ++i) {
+                ObjectNode bucket = histogram.addObject();
+                if (i > 0)
+                    bucket.put("from", h.bounds().get(i - 1));
+                else
+                    bucket.putNull("from");
+                if (i < h.bounds().size())
+                    bucket.put("to", h.bounds().get(i));
+                else
+                    bucket.putNull("to");
+                bucket.put("count", buckets[i]);
+            }
+        });
+        return json;
+    }
+}
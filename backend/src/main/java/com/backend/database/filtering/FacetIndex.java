@@ -0,0 +1,255 @@
+package com.backend.database.filtering;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable in-memory index of which keys (e.g. charity ids) belong to which facets (e.g. classes).
+ * <p>
+ * Every key is assigned a dense integer id, and every facet is a bitmap over those ids, so selecting
+ * the keys in several facets and outside of others is a handful of word-wise and/and-not operations.
+ * Changes create a new index that shares the unchanged bitmaps.
+ * <p>
+ * The index used by "facet" filters is installed with @see{#install}. Until an index is installed,
+ * there are no facets.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public final class FacetIndex {
+
+    /**
+     * Prefix of a facet name that selects the keys outside of the facet.
+     */
+    public static final String EXCLUDE_PREFIX = "!";
+
+    /**
+     * Index without keys or facets.
+     */
+    public static final FacetIndex EMPTY = new FacetIndex(List.of(), Map.of(), Map.of());
+
+    private static volatile FacetIndex installed = EMPTY;
+
+    private final List<String> keys;
+    private final Map<String, Integer> ids;
+    private final Map<String, BitSet> facets;
+
+    private FacetIndex(List<String> keys, Map<String, Integer> ids, Map<String, BitSet> facets) {
+        this.keys = keys;
+        this.ids = ids;
+        this.facets = facets;
+    }
+
+    /**
+     * Builds a @see{FacetIndex}.
+     */
+    public static final class Builder {
+
+        private final Set<String> keys = new TreeSet<>();
+        private final Map<String, Set<String>> facets = new HashMap<>();
+
+        /**
+         * Adds a key, whether or not it belongs to any facet.
+         */
+        public Builder key(String key) {
+            assert null != key;
+            keys.add(key);
+            return this;
+        }
+
+        /**
+         * Declares a facet, whether or not any key belongs to it.
+         */
+        public Builder facet(String facet) {
+            assert null != facet;
+            if (facet.startsWith(EXCLUDE_PREFIX))
+                throw new IllegalArgumentException(String.format("Facet names can not start with \"%s\".", EXCLUDE_PREFIX));
+            facets.computeIfAbsent(facet, f -> new TreeSet<>());
+            return this;
+        }
+
+        /**
+         * Adds a key to a facet (adding the key and declaring the facet if needed).
+         */
+        public Builder add(String facet, String key) {
+            facet(facet);
+            key(key);
+            facets.get(facet).add(key);
+            return this;
+        }
+
+        public FacetIndex build() {
+            List<String> sorted = List.copyOf(keys);
+            Map<String, Integer> ids = new HashMap<>(2 * sorted.size());
+            for (int i = 0; i < sorted.size(); ++i)
+                ids.put(sorted.get(i), i);
+            Map<String, BitSet> bitmaps = new HashMap<>();
+            facets.forEach((facet, members) -> {
+                BitSet bitmap = new BitSet(sorted.size());
+                members.forEach(key -> bitmap.set(ids.get(key)));
+                bitmaps.put(facet, bitmap);
+            });
+            return new FacetIndex(sorted, Collections.unmodifiableMap(ids), Collections.unmodifiableMap(bitmaps));
+        }
+    }
+
+    /**
+     * Gets the index used by "facet" filters.
+     */
+    public static FacetIndex installed() {
+        return installed;
+    }
+
+    /**
+     * Sets the index used by "facet" filters.
+     */
+    public static void install(FacetIndex index) {
+        assert null != index;
+        installed = index;
+    }
+
+    private BitSet bitmap(String facet) {
+        BitSet bitmap = facets.get(facet);
+        if (null == bitmap)
+            throw new IllegalArgumentException(String.format("Unknown facet \"%s\".", facet));
+        return bitmap;
+    }
+
+    private BitSet all() {
+        BitSet bitmap = new BitSet(keys.size());
+        bitmap.set(0, keys.size());
+        return bitmap;
+    }
+
+    /**
+     * True if none of the facet names select a facet (all of them start with @see{#EXCLUDE_PREFIX}).
+     */
+    public static boolean isExclusionOnly(Collection<String> names) {
+        return names.stream().allMatch(n -> n.startsWith(EXCLUDE_PREFIX));
+    }
+
+    /**
+     * Selects the keys that belong to every facet named, and to none of the facets named with @see{#EXCLUDE_PREFIX}.
+     * @param names Names of the facets, e.g. ["Medicine", "Humanitarian", "!paused"].
+     * @return Bitmap of the ids of the selected keys.
+     * @throws IllegalArgumentException Thrown if a facet does not exist.
+     */
+    public BitSet select(Collection<String> names) throws IllegalArgumentException {
+        assert null != names;
+        BitSet selected = null;
+        List<BitSet> excluded = new ArrayList<>();
+        for (String name : names) {
+            if (name.startsWith(EXCLUDE_PREFIX)) {
+                excluded.add(bitmap(name.substring(EXCLUDE_PREFIX.length())));
+            } else if (null == selected) {
+                selected = (BitSet) bitmap(name).clone();
+            } else {
+                selected.and(bitmap(name));
+            }
+        }
+        if (null == selected)
+            selected = all();
+        for (BitSet bitmap : excluded)
+            selected.andNot(bitmap);
+        return selected;
+    }
+
+    /**
+     * Gets the union of the facets named (without @see{#EXCLUDE_PREFIX}).
+     * @throws IllegalArgumentException Thrown if a facet does not exist.
+     */
+    public BitSet union(Collection<String> names) throws IllegalArgumentException {
+        BitSet union = new BitSet(keys.size());
+        names.forEach(name -> union.or(bitmap(name)));
+        return union;
+    }
+
+    /**
+     * Gets the keys of a bitmap of ids, in order.
+     */
+    public List<String> keysOf(BitSet bitmap) {
+        List<String> result = new ArrayList<>(bitmap.cardinality());
+        bitmap.stream().forEach(id -> result.add(keys.get(id)));
+        return result;
+    }
+
+    /**
+     * Gets the id of a key.
+     */
+    public Optional<Integer> idOf(String key) {
+        return Optional.ofNullable(ids.get(key));
+    }
+
+    /**
+     * True if a key belongs to a facet.
+     */
+    public boolean contains(String facet, String key) {
+        Integer id = ids.get(key);
+        return null != id && bitmap(facet).get(id);
+    }
+
+    /**
+     * Counts the keys of a bitmap that belong to a facet.
+     */
+    public int count(String facet, BitSet within) {
+        BitSet bitmap = (BitSet) bitmap(facet).clone();
+        bitmap.and(within);
+        return bitmap.cardinality();
+    }
+
+    /**
+     * Creates an index where a key does (or does not) belong to a facet. A new key is added at the end of the ids.
+     * @param facet A declared facet.
+     * @param key The key.
+     * @param member True if the key belongs to the facet.
+     * @return The new index, or this index if nothing changed.
+     */
+    public FacetIndex with(String facet, String key, boolean member) {
+        assert null != key;
+        BitSet bitmap = bitmap(facet);
+        Integer id = ids.get(key);
+        if (null != id && bitmap.get(id) == member)
+            return this;
+        if (null == id && !member)
+            return this;
+
+        List<String> newKeys = keys;
+        Map<String, Integer> newIds = ids;
+        if (null == id) {
+            id = keys.size();
+            newKeys = new ArrayList<>(keys);
+            newKeys.add(key);
+            newKeys = Collections.unmodifiableList(newKeys);
+            Map<String, Integer> copy = new HashMap<>(ids);
+            copy.put(key, id);
+            newIds = Collections.unmodifiableMap(copy);
+        }
+        BitSet changed = (BitSet) bitmap.clone();
+        changed.set(id, member);
+        Map<String, BitSet> newFacets = new HashMap<>(facets);
+        newFacets.put(facet, changed);
+        return new FacetIndex(newKeys, newIds, Collections.unmodifiableMap(newFacets));
+    }
+
+    /**
+     * Gets the names of all facets.
+     */
+    public Set<String> getFacets() {
+        return facets.keySet();
+    }
+
+    /**
+     * Gets the number of keys in the index.
+     */
+    public int size() {
+        return keys.size();
+    }
+}
@@ -0,0 +1,130 @@
+package com.backend.database.filtering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Facet counts requested alongside the results of a list query (the "facets" property).
+ * <p>
+ * Facets are counted over every result passing the filters, not just the returned page: the number
+ * of results in each facet of the @see{FacetIndex}, and the number of results in each bucket of a
+ * histogram over a numeric field.
+ * @param facets Facets of the index to count results in (empty to count none).
+ * @param histogram Histogram to count results in, or Optional.empty() for none.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public record FacetRequest(List<String> facets, Optional<FacetRequest.Histogram> histogram) {
+
+    /**
+     * Most buckets of a histogram.
+     */
+    public static final int MAX_BUCKETS = 32;
+
+    /**
+     * Histogram over a numeric field.
+     * <p>
+     * N bounds make N + 1 buckets: values below the first bound, values from each bound up to (not
+     * including) the next, and values from the last bound up.
+     * @param field Field to count the values of.
+     * @param bounds Strictly increasing bounds of the buckets.
+     */
+    public record Histogram(String field, List<Double> bounds) {
+
+        public Histogram {
+            assert null != field;
+            assert null != bounds;
+            if (bounds.isEmpty() || bounds.size() >= MAX_BUCKETS)
+                throw new IllegalArgumentException(String.format("Histograms expect between 1 and %d bounds.", MAX_BUCKETS - 1));
+            for (int i = 1; i < bounds.size(); ++i) {
+                if (bounds.get(i - 1) >= bounds.get(i))
+                    throw new IllegalArgumentException("Histogram bounds must be strictly increasing.");
+            }
+        }
+
+        /**
+         * Gets the bucket a value falls into.
+         */
+        public int bucketOf(double value) {
+            int low = 0;
+            int high = bounds.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (bounds.get(middle) <= value)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            return low;
+        }
+
+        /**
+         * Gets the number of buckets.
+         */
+        public int buckets() {
+            return bounds.size() + 1;
+        }
+    }
+
+    public FacetRequest {
+        assert null != facets;
+        assert null != histogram;
+    }
+
+    private static List<String> facetsFromJson(JsonNode json, FacetIndex index) {
+        if (json.isBoolean())
+            return json.asBoolean() ? index.getFacets().stream().sorted().toList() : List.of();
+        if (!json.isArray())
+            throw new IllegalArgumentException("Expected \"classes\" to be true or an array of classes.");
+        List<String> facets = new ArrayList<>();
+        for (JsonNode facet : json) {
+            if (!facet.isTextual())
+                throw new IllegalArgumentException("Expected \"classes\" to contain class names.");
+            if (!index.getFacets().contains(facet.asText()))
+                throw new IllegalArgumentException(String.format("Unknown facet \"%s\".", facet.asText()));
+            if (!facets.contains(facet.asText()))
+                facets.add(facet.asText());
+        }
+        return facets;
+    }
+
+    private static Histogram histogramFromJson(JsonNode json) {
+        if (!json.isObject() || !json.has("field") || !json.has("bounds"))
+            throw new IllegalArgumentException("Expected \"histogram\" to have a \"field\" and \"bounds\".");
+        if (!json.get("bounds").isArray())
+            throw new IllegalArgumentException("Expected \"bounds\" to be an array of numbers.");
+        List<Double> bounds = new ArrayList<>();
+        for (JsonNode bound : json.get("bounds")) {
+            if (!bound.isNumber())
+                throw new IllegalArgumentException("Expected \"bounds\" to be an array of numbers.");
+            bounds.add(bound.asDouble());
+        }
+        return new Histogram(json.get("field").asText(), bounds);
+    }
+
+    /**
+     * Convert to FacetRequest from the "facets" property of a json query.
+     * <p>
+     * The property is an object with the optional properties "classes" (true for every facet of the
+     * index, or an array of facet names) and "histogram" (an object with a "field" and "bounds").
+     * @param json Value of the "facets" property.
+     * @param index Index the facets are counted with.
+     * @throws IllegalArgumentException Thrown if the request is malformed, or names an unknown facet.
+     */
+    public static FacetRequest fromJson(JsonNode json, FacetIndex index) throws IllegalArgumentException {
+        assert null != json;
+        assert null != index;
+        if (!json.isObject())
+            throw new IllegalArgumentException("Expected \"facets\" to be an object.");
+        List<String> facets = json.has("classes") ? facetsFromJson(json.get("classes"), index) : List.of();
+        Optional<Histogram> histogram = json.has("histogram") ?
+            Optional.of(histogramFromJson(json.get("histogram"))) : Optional.empty();
+        if (facets.isEmpty() && histogram.isEmpty())
+            throw new IllegalArgumentException("Expected \"facets\" to request \"classes\" or a \"histogram\".");
+        return new FacetRequest(facets, histogram);
+    }
+}
@@ -0,0 +1,203 @@
+package com.backend.database.filtering;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/**
+ * Fields of every entity in a JPA metamodel, resolved once.
+ * <p>
+ * Fields are looked up by their declared name, or case insensitively by their name or column name.
+ * A field counts as indexed if it is part of the primary key, is unique, or is the leading column of
+ * an index declared in the @see{Table} annotation of the entity. The column named by the @see{Searchable}
+ * annotation of an entity is its search vector, reached through the first field of the primary key.
+ * @author JaarmaCo
+ * @since 2025-10-08
+ * @version 1.0
+ */
+public final class FieldRegistry {
+
+    private record EntityFields(Map<String, EntityField> aliases, List<EntityField> fields, List<EntityField> primaryKey,
+        Optional<EntityField> searchVector) {}
+
+    private static final Map<Metamodel, FieldRegistry> registries = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<Class<?>, EntityFields> entities = new HashMap<>();
+
+    private FieldRegistry(Metamodel metamodel) {
+        for (EntityType<?> type : metamodel.getEntities()) {
+            entities.put(type.getJavaType(), fieldsOf(type));
+        }
+    }
+
+    /**
+     * Gets the registry of a metamodel, building it on first use.
+     * @param metamodel The metamodel of the entity manager factory in use.
+     * @return The registry.
+     */
+    public static FieldRegistry of(Metamodel metamodel) {
+        assert null != metamodel;
+        return registries.computeIfAbsent(metamodel, FieldRegistry::new);
+    }
+
+    private static Set<String> indexedColumns(Class<?> entityClass) {
+        Set<String> columns = new HashSet<>();
+        Table table = entityClass.getAnnotation(Table.class);
+        if (null == table)
+            return columns;
+        for (Index index : table.indexes()) {
+            String leading = index.columnList().split(",")[0].trim().split("\\s+")[0];
+            columns.add(leading.toLowerCase(Locale.ROOT));
+        }
+        return columns;
+    }
+
+    private static <A extends Annotation> Optional<A> annotationOf(SingularAttribute<?, ?> attribute, Class<A> annotation) {
+        Member member = attribute.getJavaMember();
+        if (member instanceof AnnotatedElement element)
+            return Optional.ofNullable(element.getAnnotation(annotation));
+        return Optional.empty();
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive())
+            return type;
+        if (type == int.class)
+            return Integer.class;
+        if (type == long.class)
+            return Long.class;
+        if (type == boolean.class)
+            return Boolean.class;
+        if (type == double.class)
+            return Double.class;
+        if (type == float.class)
+            return Float.class;
+        if (type == short.class)
+            return Short.class;
+        if (type == byte.class)
+            return Byte.class;
+        return Character.class;
+    }
+
+    private static <Entity> EntityFields fieldsOf(EntityType<Entity> type) {
+        Set<String> primaryKey = new HashSet<>();
+        if (type.hasSingleIdAttribute())
+            primaryKey.add(type.getId(type.getIdType().getJavaType()).getName());
+        else
+            type.getIdClassAttributes().forEach(a -> primaryKey.add(a.getName()));
+
+        Set<String> indexedColumns = indexedColumns(type.getJavaType());
+        List<EntityField> fields = type.getSingularAttributes().stream()
+            .map(attribute -> {
+                Optional<Column> column = annotationOf(attribute, Column.class);
+                String columnName = column.map(Column::name)
+                    .filter(n -> !n.isEmpty())
+                    .orElse(attribute.getName())
+                    .toLowerCase(Locale.ROOT);
+                boolean indexed = primaryKey.contains(attribute.getName())
+                    || column.map(Column::unique).orElse(false)
+                    || indexedColumns.contains(columnName);
+                return new EntityField(attribute.getName(), columnName, boxed(attribute.getJavaType()), indexed, attribute);
+            })
+            .sorted(Comparator.comparing(EntityField::name))
+            .toList();
+
+        Optional<EntityField> row = fields.stream().filter(f -> primaryKey.contains(f.name())).findFirst();
+        Optional<EntityField> searchVector = Optional.ofNullable(type.getJavaType().getAnnotation(Searchable.class))
+            .flatMap(searchable -> row.map(r -> new EntityField(searchable.value(),
+                searchable.value().toLowerCase(Locale.ROOT), String.class, true, r.attribute())));
+
+        Map<String, EntityField> aliases = new LinkedHashMap<>();
+        fields.forEach(f -> aliases.put(f.name(), f));
+        fields.forEach(f -> aliases.putIfAbsent(f.name().toLowerCase(Locale.ROOT), f));
+        fields.forEach(f -> aliases.putIfAbsent(f.column(), f));
+
+        return new EntityFields(aliases,
+            fields,
+            fields.stream().filter(f -> primaryKey.contains(f.name())).toList(),
+            searchVector);
+    }
+
+    private EntityFields entity(Class<?> entityClass) {
+        EntityFields fields = entities.get(entityClass);
+        if (null == fields)
+            throw new IllegalArgumentException(String.format("Not an entity: %s.", entityClass.getName()));
+        return fields;
+    }
+
+    /**
+     * Looks up a field of an entity.
+     * @param entityClass Class of the entity.
+     * @param field Name of the field, as given by the client.
+     * @return The field, or Optional.empty() if the entity has no such field.
+     */
+    public Optional<EntityField> tryGet(Class<?> entityClass, String field) {
+        assert null != entityClass;
+        assert null != field;
+        Map<String, EntityField> aliases = entity(entityClass).aliases();
+        EntityField result = aliases.get(field);
+        if (null == result)
+            result = aliases.get(field.toLowerCase(Locale.ROOT));
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Looks up a field of an entity.
+     * @param entityClass Class of the entity.
+     * @param field Name of the field, as given by the client.
+     * @return The field.
+     * @throws IllegalArgumentException Thrown if the entity has no such field.
+     */
+    public EntityField get(Class<?> entityClass, String field) throws IllegalArgumentException {
+        return tryGet(entityClass, field)
+            .orElseThrow(() -> new IllegalArgumentException(String.format("No such field \"%s\".", field)));
+    }
+
+    /**
+     * Gets all fields of an entity, ordered by name.
+     */
+    public Collection<EntityField> getFields(Class<?> entityClass) {
+        return entity(entityClass).fields();
+    }
+
+    /**
+     * Gets the fields of the primary key of an entity, ordered by name.
+     */
+    public List<EntityField> getPrimaryKey(Class<?> entityClass) {
+        return entity(entityClass).primaryKey();
+    }
+
+    /**
+     * Gets the field marked @see{Searchable} of an entity.
+     * @return The search vector, or Optional.empty() if the entity can not be searched.
+     */
+    public Optional<EntityField> getSearchVector(Class<?> entityClass) {
+        return entity(entityClass).searchVector();
+    }
+
+    /**
+     * Gets the number of entities in the registry.
+     */
+    public int size() {
+        return entities.size();
+    }
+}
@@ -0,0 +1,30 @@
+package com.backend.database.filtering;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Builds the @see{FieldRegistry} of the application on startup, so that no request pays for it.
+ * @author JaarmaCo
+ * @since 2025-10-08
+ * @version 1.0
+ */
+@Component
+public class FieldRegistryLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(FieldRegistryLoader.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void load() {
+        FieldRegistry registry = FieldRegistry.of(entityManagerFactory.getMetamodel());
+        log.info("Registered the fields of {} entities for filtering.", registry.size());
+    }
+}
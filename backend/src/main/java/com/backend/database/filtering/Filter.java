@@ -96,7 +96,14 @@ public class Filter<Entity> {
      */
     @Override
     public String toString() {
-        if (getMethod().isComparison()) {
+        if (getMethod() == FilteringMethod.BETWEEN) {
+            List<?> bounds = (List<?>) operand.get();
+            return String.format("%s.%s BETWEEN %s AND %s (exclusive)",
+                entityClass.getName(),
+                getField(),
+                javaObjectToSqlString(bounds.get(0)),
+                javaObjectToSqlString(bounds.get(1)));
+        } else if (getMethod().isComparison()) {
             return String.format("%s.%s %s %s", 
                 entityClass.getName(),
                 getField(),
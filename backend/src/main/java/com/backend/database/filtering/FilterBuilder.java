@@ -1,14 +1,23 @@
 package com.backend.database.filtering;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.StreamSupport;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 
 /**
  * Builds @see{Filter} objects that can later be applied in a @see{FilteredQuery}
+ * <p>
+ * Fields are resolved through the @see{FieldRegistry}, and operands are converted to the type of
+ * the field, so that invalid filters are rejected with an IllegalArgumentException before any SQL is generated.
  * @param <Entity> Database entity being filtered.
  * @author JaarmaCo
  * @since 2025-09-23
@@ -19,14 +28,38 @@ public class FilterBuilder<Entity> {
     private final Class<Entity> entityClass;
     private final CriteriaBuilder cb;
     private final Root<Entity> root;
+    private final FieldRegistry fields;
 
-    /* package-private */ FilterBuilder(CriteriaBuilder builder, Root<Entity> root, Class<Entity> entityClass) {
+    /* package-private */ FilterBuilder(CriteriaBuilder builder, Root<Entity> root, Class<Entity> entityClass, FieldRegistry fields) {
         assert null != builder;
         assert null != root;
         assert null != entityClass;
+        assert null != fields;
         this.cb = builder;
         this.root = root;
         this.entityClass = entityClass;
+        this.fields = fields;
+    }
+
+    private EntityField field(String field) {
+        return fields.get(entityClass, field);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Path<T> path(EntityField field) {
+        return root.get((SingularAttribute<? super Entity, T>) field.attribute());
+    }
+
+    private EntityField comparableField(String field) {
+        EntityField result = field(field);
+        if (!result.isComparable())
+            throw new IllegalArgumentException(String.format("Field \"%s\" can not be compared.", result.name()));
+        return result;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Comparable comparable(EntityField field, Object value) {
+        return (Comparable) field.coerce(value);
     }
 
     /**
@@ -36,14 +69,16 @@ public class FilterBuilder<Entity> {
      * @param value Value to assign as the right hand operand.
      * @return A filter that, when applied to a query, filters: Entity.field < value
      */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public <Value extends Number> Filter<Entity> lessThan(String field, Value value) {
         assert null != field;
         assert null != value;
-//        field = field.toLowerCase();
-        return new Filter<>(cb.lt(root.get(field), value), 
-            entityClass, 
-            FilteringMethod.LESS, 
-            field, value);
+        EntityField f = comparableField(field);
+        Comparable operand = comparable(f, value);
+        return new Filter<>(cb.lessThan(this.<Comparable>path(f), operand),
+            entityClass,
+            FilteringMethod.LESS,
+            f.name(), operand);
     }
 
     /**
@@ -53,14 +88,16 @@ public class FilterBuilder<Entity> {
      * @param value Value to assign as the right hand operand.
      * @return A filter that, when applied to a query, filters: Entity.field > value
      */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public <Value extends Number> Filter<Entity> greaterThan(String field, Value value) {
         assert null != field;
         assert null != value;
-//        field = field.toLowerCase();
-        return new Filter<>(cb.gt(root.get(field), value),
+        EntityField f = comparableField(field);
+        Comparable operand = comparable(f, value);
+        return new Filter<>(cb.greaterThan(this.<Comparable>path(f), operand),
             entityClass,
             FilteringMethod.GREATER,
-            field, value);
+            f.name(), operand);
     }
 
     /**
@@ -73,11 +110,12 @@ public class FilterBuilder<Entity> {
     public <Value> Filter<Entity> equalTo(String field, Value value) {
         assert null != field;
         assert null != value;
-//        field = field.toLowerCase();
-        return new Filter<>(cb.equal(root.get(field), value),
+        EntityField f = field(field);
+        Object operand = f.coerce(value);
+        return new Filter<>(cb.equal(path(f), operand),
             entityClass,
             FilteringMethod.EQUALS,
-            field, value);
+            f.name(), operand);
     }
 
     /**
@@ -89,11 +127,134 @@ public class FilterBuilder<Entity> {
     public Filter<Entity> like(String field, String value) {
         assert null != field;
         assert null != value;
-//        field = field.toLowerCase();
-        return new Filter<>(cb.like(root.get(field), value),
+        EntityField f = field(field);
+        if (!f.isText())
+            throw new IllegalArgumentException(String.format("Filter \"like\" expects a text field, \"%s\" is not.", f.name()));
+        return new Filter<>(cb.like(this.<String>path(f), value),
             entityClass,
             FilteringMethod.LIKE,
-            field, value);
+            f.name(), value);
+    }
+
+    /**
+     * Create a filter that matches any of a list of values.
+     * @param <Value> Type of the values.
+     * @param field Field to compare to.
+     * @param values Values to match against.
+     * @return A filter that, when applied to a query, filters: Entity.field IN (values)
+     */
+    public <Value> Filter<Entity> in(String field, Collection<Value> values) {
+        assert null != field;
+        assert null != values;
+        EntityField f = field(field);
+        List<Object> operands = values.stream().map(f::coerce).toList();
+        CriteriaBuilder.In<Object> in = cb.in(path(f));
+        operands.forEach(in::value);
+        return new Filter<>(in,
+            entityClass,
+            FilteringMethod.IN,
+            f.name(), operands);
+    }
+
+    /**
+     * Create an exclusive range filter.
+     * @param <Value> Numeric type.
+     * @param field Field to compare to.
+     * @param low Lower (exclusive) bound.
+     * @param high Upper (exclusive) bound.
+     * @return A filter that, when applied to a query, filters: low < Entity.field < high
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <Value extends Number> Filter<Entity> between(String field, Value low, Value high) {
+        assert null != field;
+        assert null != low;
+        assert null != high;
+        EntityField f = comparableField(field);
+        Comparable lower = comparable(f, low);
+        Comparable upper = comparable(f, high);
+        Expression<Comparable> path = path(f);
+        return new Filter<>(cb.and(cb.greaterThan(path, lower), cb.lessThan(path, upper)),
+            entityClass,
+            FilteringMethod.BETWEEN,
+            f.name(), List.of(lower, upper));
+    }
+
+    /**
+     * Create a filter on the facets of the installed @see{FacetIndex}.
+     * <p>
+     * The facets are intersected in memory, and the keys selected are bound as one array (@see{KeyFunctions}).
+     * If every facet is excluded, the keys excluded are matched with a negated predicate instead, so
+     * that keys missing from the index are not filtered out.
+     * @param field Text field holding the keys of the index (e.g. a charity id).
+     * @param facets Names of the facets, those starting with @see{FacetIndex#EXCLUDE_PREFIX} excluded.
+     * @return A filter that, when applied to a query, filters: Entity.field = ANY(keys in every facet, and in no excluded facet)
+     */
+    public Filter<Entity> facet(String field, List<String> facets) {
+        assert null != field;
+        assert null != facets;
+        EntityField f = field(field);
+        if (!f.isText())
+            throw new IllegalArgumentException(String.format("Filter \"facet\" expects a text field, \"%s\" is not.", f.name()));
+        FacetIndex index = FacetIndex.installed();
+        boolean exclusionOnly = FacetIndex.isExclusionOnly(facets);
+        List<String> keys = exclusionOnly
+            ? index.keysOf(index.union(facets.stream().map(n -> n.substring(FacetIndex.EXCLUDE_PREFIX.length())).toList()))
+            : index.keysOf(index.select(facets));
+
+        Predicate predicate;
+        if (keys.isEmpty()) {
+            predicate = exclusionOnly ? cb.conjunction() : cb.disjunction();
+        } else {
+            // A literal array would be rendered inline, value() binds it as a parameter.
+            Predicate in = cb.isTrue(cb.function(KeyFunctions.KEY_IN, Boolean.class,
+                path(f), ((HibernateCriteriaBuilder) cb).value(keys.toArray(String[]::new))));
+            predicate = exclusionOnly ? cb.not(in) : in;
+        }
+        return new Filter<>(predicate,
+            entityClass,
+            FilteringMethod.FACET,
+            f.name(), facets);
+    }
+
+    private EntityField searchVector() {
+        return fields.getSearchVector(entityClass)
+            .orElseThrow(() -> new IllegalArgumentException("Filter \"search\" is not supported on these results."));
+    }
+
+    /**
+     * Create a full-text search filter.
+     * <p>
+     * The text is parsed as a web search query (words, "quoted phrases", or, and -excluded words)
+     * and matched against the @see{Searchable} column of the entity.
+     * @param text Text to search for.
+     * @return A filter that, when applied to a query, filters: Entity.searchVector @@ text
+     */
+    public Filter<Entity> search(String text) {
+        assert null != text;
+        EntityField f = searchVector();
+        return new Filter<>(cb.isTrue(cb.function(SearchFunctions.MATCH, Boolean.class, path(f), cb.literal(f.column()), searchText(text))),
+            entityClass,
+            FilteringMethod.SEARCH,
+            f.name(), text);
+    }
+
+    /**
+     * Create an expression of how relevant a row is to a full-text search.
+     * @param text Text that was searched for.
+     * @return An expression that is larger the better a row matches the text.
+     */
+    /* package-private */ Expression<Double> relevance(String text) {
+        assert null != text;
+        EntityField f = searchVector();
+        return cb.function(SearchFunctions.RANK, Double.class, path(f), cb.literal(f.column()), searchText(text));
+    }
+
+    /**
+     * The text searched for, bound as a parameter (a literal would be rendered into the query). Only the
+     * name of the vector column has to be a literal.
+     */
+    private Expression<String> searchText(String text) {
+        return ((HibernateCriteriaBuilder) cb).value(text);
     }
 
     private Predicate[] predicates(Iterable<Filter<Entity>> filters) {
@@ -0,0 +1,177 @@
+package com.backend.database.filtering;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Normalizes compiled @see{FilterPlan} trees before they are bound into queries.
+ * <p>
+ * The pass flattens nested and/or nodes, pushes not down to the comparisons, removes duplicate
+ * sub-filters, folds constant sub-filters, and rewrites or-ed equals filters on the same field into
+ * a single in filter, and-ed greater/less filters on the same field into a between filter, and and-ed
+ * facet filters on the same field into a single facet filter (one bitmap intersection).
+ * <p>
+ * Constants are represented by boolean nodes without arguments: an empty and is always true,
+ * and an empty or is always false. Plans only contain parameter slots, never literal values, so
+ * two comparisons are only considered equal if they compare against the same slot.
+ * @author JaarmaCo
+ * @since 2025-10-06
+ * @version 1.0
+ */
+/* package-private */ final class FilterOptimizer {
+
+    private FilterOptimizer() {}
+
+    /**
+     * Normalize a plan.
+     * @param plan Plan to normalize.
+     * @return A plan that filters the same rows as the given plan.
+     */
+    /* package-private */ static FilterPlan optimize(FilterPlan plan) {
+        assert null != plan;
+        return normalize(plan, false);
+    }
+
+    private static boolean isConstant(FilterPlan plan, FilteringMethod method) {
+        return plan.getMethod() == method && plan.getArguments().isEmpty();
+    }
+
+    private static FilteringMethod dual(FilteringMethod method) {
+        return method == FilteringMethod.AND ? FilteringMethod.OR : FilteringMethod.AND;
+    }
+
+    private static FilterPlan normalize(FilterPlan plan, boolean negated) {
+        FilteringMethod method = plan.getMethod();
+        if (method.isComparison())
+            return negated ? FilterPlan.bool(FilteringMethod.NOT, List.of(plan)) : plan;
+        if (method == FilteringMethod.NOT)
+            return normalize(plan.getArguments().get(0), !negated);
+
+        // De Morgan: not (a and b) = (not a) or (not b), and vice versa.
+        FilteringMethod junction = negated ? dual(method) : method;
+        FilteringMethod absorbing = dual(junction);
+
+        LinkedHashSet<FilterPlan> arguments = new LinkedHashSet<>();
+        for (FilterPlan argument : plan.getArguments()) {
+            FilterPlan normalized = normalize(argument, negated);
+            if (isConstant(normalized, absorbing))
+                return normalized;
+            if (normalized.getMethod() == junction)
+                arguments.addAll(normalized.getArguments());
+            else
+                arguments.add(normalized);
+        }
+
+        List<FilterPlan> result = junction == FilteringMethod.OR ?
+            mergeEquals(arguments) : mergeFacets(mergeRanges(arguments));
+
+        if (junction == FilteringMethod.AND && isContradiction(result))
+            return FilterPlan.bool(FilteringMethod.OR, List.of());
+        if (result.size() == 1)
+            return result.get(0);
+        return FilterPlan.bool(junction, result);
+    }
+
+    private static boolean isContradiction(List<FilterPlan> conjunction) {
+        // a and not a can never be true (it is either false or unknown when a is null).
+        for (FilterPlan argument : conjunction) {
+            if (argument.getMethod() == FilteringMethod.NOT
+                    && conjunction.contains(argument.getArguments().get(0)))
+                return true;
+        }
+        return false;
+    }
+
+    private static List<FilterPlan> mergeEquals(LinkedHashSet<FilterPlan> disjunction) {
+        Map<String, List<FilterPlan>> byField = new LinkedHashMap<>();
+        for (FilterPlan argument : disjunction) {
+            if (argument.getMethod() == FilteringMethod.EQUALS || argument.getMethod() == FilteringMethod.IN)
+                byField.computeIfAbsent(argument.getField(), f -> new ArrayList<>()).add(argument);
+        }
+
+        List<FilterPlan> result = new ArrayList<>();
+        for (FilterPlan argument : disjunction) {
+            if (argument.getMethod() != FilteringMethod.EQUALS && argument.getMethod() != FilteringMethod.IN) {
+                result.add(argument);
+                continue;
+            }
+            List<FilterPlan> group = byField.remove(argument.getField());
+            if (null == group)
+                continue; // Already merged into the first filter on the field.
+            if (group.size() == 1) {
+                result.add(argument);
+                continue;
+            }
+            int[] slots = group.stream()
+                .flatMapToInt(p -> IntStream.of(p.getSlots()))
+                .sorted()
+                .distinct()
+                .toArray();
+            result.add(FilterPlan.comparison(FilteringMethod.IN, argument.getField(), slots));
+        }
+        return result;
+    }
+
+    private static List<FilterPlan> mergeRanges(LinkedHashSet<FilterPlan> conjunction) {
+        Map<String, FilterPlan> lower = new LinkedHashMap<>();
+        Map<String, FilterPlan> upper = new LinkedHashMap<>();
+        for (FilterPlan argument : conjunction) {
+            if (argument.getMethod() == FilteringMethod.GREATER)
+                lower.putIfAbsent(argument.getField(), argument);
+            else if (argument.getMethod() == FilteringMethod.LESS)
+                upper.putIfAbsent(argument.getField(), argument);
+        }
+
+        Set<String> merged = new HashSet<>();
+        List<FilterPlan> result = new ArrayList<>();
+        for (FilterPlan argument : conjunction) {
+            String field = argument.getField();
+            FilterPlan low = lower.get(field);
+            FilterPlan high = upper.get(field);
+            if (null == low || null == high || (argument != low && argument != high)) {
+                result.add(argument);
+            } else if (merged.add(field)) {
+                // Emitted in place of whichever bound comes first, the other bound is dropped.
+                int[] slots = { low.getSlots()[0], high.getSlots()[0] };
+                result.add(FilterPlan.comparison(FilteringMethod.BETWEEN, field, slots));
+            }
+        }
+        return result;
+    }
+
+    private static List<FilterPlan> mergeFacets(List<FilterPlan> conjunction) {
+        Map<String, List<FilterPlan>> byField = new LinkedHashMap<>();
+        for (FilterPlan argument : conjunction) {
+            if (argument.getMethod() == FilteringMethod.FACET)
+                byField.computeIfAbsent(argument.getField(), f -> new ArrayList<>()).add(argument);
+        }
+
+        List<FilterPlan> result = new ArrayList<>();
+        for (FilterPlan argument : conjunction) {
+            if (argument.getMethod() != FilteringMethod.FACET) {
+                result.add(argument);
+                continue;
+            }
+            List<FilterPlan> group = byField.remove(argument.getField());
+            if (null == group)
+                continue; // Already merged into the first filter on the field.
+            if (group.size() == 1) {
+                result.add(argument);
+                continue;
+            }
+            int[] slots = group.stream()
+                .flatMapToInt(p -> IntStream.of(p.getSlots()))
+                .sorted()
+                .distinct()
+                .toArray();
+            result.add(FilterPlan.comparison(FilteringMethod.FACET, argument.getField(), slots));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,285 @@
+package com.backend.database.filtering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Opaque, validated and entity independent form of a Json filter.
+ * <p>
+ * Plans do not contain any literal values. Operands are referred to through parameter slots,
+ * which are bound when the plan is turned into a @see{Filter} for a specific query.
+ * @author JaarmaCo
+ * @since 2025-10-02
+ * @version 1.0
+ */
+public final class FilterPlan {
+
+    private final FilteringMethod method;
+    private final String field;
+    private final int[] slots;
+    private final List<FilterPlan> arguments;
+
+    private FilterPlan(FilteringMethod method, String field, int[] slots, List<FilterPlan> arguments) {
+        assert null != method;
+        assert null != field;
+        assert null != slots;
+        assert null != arguments;
+        this.method = method;
+        this.field = field;
+        this.slots = slots;
+        this.arguments = arguments;
+    }
+
+    /* package-private */ static FilterPlan comparison(FilteringMethod method, String field, int... slots) {
+        return new FilterPlan(method, field, slots, Collections.emptyList());
+    }
+
+    /* package-private */ static FilterPlan bool(FilteringMethod method, List<FilterPlan> arguments) {
+        return new FilterPlan(method, "(none)", new int[0], Collections.unmodifiableList(arguments));
+    }
+
+    private static FilterPlan searchFromJson(JsonNode json, FilterShape shape) {
+
+        if (!json.has("value"))
+            throw new IllegalArgumentException("Missing expected field \"value\"");
+
+        JsonNode rhs = json.get("value");
+        if (!rhs.isTextual())
+            throw new IllegalArgumentException("Filter \"search\" expects a text value.");
+
+        // Searches always target the searchable text of the entity, there is no field to choose.
+        return comparison(FilteringMethod.SEARCH, "(none)", shape.slotOf(rhs));
+    }
+
+    private static FilterPlan comparisonFromJson(JsonNode json, FilterShape shape, FilteringMethod method) {
+
+        if (!json.has("field"))
+            throw new IllegalArgumentException("Missing expected field \"field\"");
+
+        if (!json.has("value"))
+            throw new IllegalArgumentException("Missing expected field \"value\"");
+
+        String field = json.get("field").asText();
+        JsonNode rhs = json.get("value");
+
+        if (method.isMultiValued())
+            return multiValuedFromJson(field, rhs, shape, method);
+
+        if (!rhs.isValueNode() || rhs.isNull())
+            throw new IllegalArgumentException("Expected a scalar type.");
+
+        if ((method == FilteringMethod.LESS || method == FilteringMethod.GREATER) && !rhs.isNumber())
+            throw new IllegalArgumentException(String.format("Filter \"%s\" expects a numeric value.", method));
+
+        return comparison(method, field, shape.slotOf(rhs));
+    }
+
+    private static FilterPlan multiValuedFromJson(String field, JsonNode rhs, FilterShape shape, FilteringMethod method) {
+
+        if (!rhs.isArray())
+            throw new IllegalArgumentException(String.format("Filter \"%s\" expects an array value.", method));
+
+        if ((method == FilteringMethod.IN || method == FilteringMethod.FACET) && rhs.isEmpty())
+            throw new IllegalArgumentException(String.format("Filter \"%s\" expects at least one value.", method));
+
+        if (method == FilteringMethod.BETWEEN && rhs.size() != 2)
+            throw new IllegalArgumentException("Filter \"between\" expects exactly two values.");
+
+        int[] slots = new int[rhs.size()];
+        for (int i = 0; i < slots.length; ++i) {
+            JsonNode value = rhs.get(i);
+            if (!value.isValueNode() || value.isNull())
+                throw new IllegalArgumentException("Expected a scalar type.");
+            if (method == FilteringMethod.BETWEEN && !value.isNumber())
+                throw new IllegalArgumentException("Filter \"between\" expects numeric values.");
+            if (method == FilteringMethod.FACET && !value.isTextual())
+                throw new IllegalArgumentException("Filter \"facet\" expects facet names.");
+            slots[i] = shape.slotOf(value);
+        }
+        if (method == FilteringMethod.IN || method == FilteringMethod.FACET)
+            slots = Arrays.stream(slots).sorted().distinct().toArray();
+        return comparison(method, field, slots);
+    }
+
+    private static FilterPlan booleanFromJson(JsonNode json, FilterShape shape, FilteringMethod method) {
+        if (!json.has("arguments"))
+            throw new IllegalArgumentException("Missing expected field \"arguments\"");
+
+        if (!json.get("arguments").isArray())
+            throw new IllegalArgumentException("Expected \"arguments\" to be an array.");
+
+        List<FilterPlan> arguments = new ArrayList<>();
+        for (JsonNode subFilter : json.get("arguments")) {
+            arguments.add(fromJson(subFilter, shape));
+        }
+
+        if (method == FilteringMethod.NOT) {
+            if (arguments.isEmpty())
+                throw new IllegalArgumentException("Filter \"not\" expects an argument.");
+            return bool(method, List.of(arguments.get(0)));
+        }
+        return bool(method, arguments);
+    }
+
+    private static FilterPlan fromJson(JsonNode json, FilterShape shape) {
+
+        if (json.isArray()) {
+            List<FilterPlan> arguments = new ArrayList<>();
+            for (JsonNode subnode : json) {
+                arguments.add(fromJson(subnode, shape));
+            }
+            return bool(FilteringMethod.AND, arguments);
+        }
+
+        if (!json.has("filter"))
+            throw new IllegalArgumentException("Missing required property \"filter\".");
+
+        FilteringMethod method = FilteringMethod.parse(json.get("filter").asText());
+        return switch (method) {
+            case NOT, OR, AND -> booleanFromJson(json, shape, method);
+            case SEARCH -> searchFromJson(json, shape);
+            default -> comparisonFromJson(json, shape, method);
+        };
+    }
+
+    /**
+     * Validates and compiles the Json a shape was computed from.
+     * <p>
+     * The compiled plan is normalized by @see{FilterOptimizer}.
+     * @param shape Shape of the filter to compile.
+     * @return The compiled plan.
+     * @throws IllegalArgumentException Thrown if the Json is not a valid filter.
+     */
+    /* package-private */ static FilterPlan compile(FilterShape shape) throws IllegalArgumentException {
+        assert null != shape;
+        return FilterOptimizer.optimize(fromJson(shape.getJson(), shape));
+    }
+
+    private static Object jsonValue(JsonNode json) {
+        return switch (json.getNodeType()) {
+        case BOOLEAN -> json.asBoolean();
+        case NUMBER -> json.numberValue();
+        case STRING -> json.asText();
+        default -> throw new IllegalArgumentException("Expected a scalar type.");
+        };
+    }
+
+    private <Entity> List<Filter<Entity>> bindArguments(FilterBuilder<Entity> builder, List<JsonNode> literals) {
+        List<Filter<Entity>> filters = new ArrayList<>(arguments.size());
+        for (FilterPlan argument : arguments) {
+            filters.add(argument.bind(builder, literals));
+        }
+        return filters;
+    }
+
+    /**
+     * Build a filter from this plan.
+     * @param <Entity> Database entity being filtered.
+     * @param builder Builder of the query the filter will be applied to.
+     * @param literals Values of the parameter slots, as given by the shape of the filter.
+     * @return A filter that corresponds to the plan with the literals substituted.
+     */
+    /* package-private */ <Entity> Filter<Entity> bind(FilterBuilder<Entity> builder, List<JsonNode> literals) {
+        assert null != builder;
+        assert null != literals;
+        return switch (method) {
+        case LESS
+            -> builder.lessThan(field, literals.get(slots[0]).numberValue());
+        case GREATER
+            -> builder.greaterThan(field, literals.get(slots[0]).numberValue());
+        case EQUALS
+            -> builder.equalTo(field, jsonValue(literals.get(slots[0])));
+        case LIKE
+            -> builder.like(field, literals.get(slots[0]).asText());
+        case IN
+            -> builder.in(field, Arrays.stream(slots).mapToObj(slot -> jsonValue(literals.get(slot))).toList());
+        case BETWEEN
+            -> builder.between(field, literals.get(slots[0]).numberValue(), literals.get(slots[1]).numberValue());
+        case FACET
+            -> builder.facet(field, Arrays.stream(slots).mapToObj(slot -> literals.get(slot).asText()).toList());
+        case SEARCH
+            -> builder.search(literals.get(slots[0]).asText());
+        case NOT
+            -> builder.not(arguments.get(0).bind(builder, literals));
+        case OR
+            -> builder.or(bindArguments(builder, literals));
+        case AND
+            -> builder.and(bindArguments(builder, literals));
+        };
+    }
+
+    /**
+     * Gets the method applied by the root of this plan.
+     */
+    public FilteringMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the field targeted by the root of this plan (or the string "(none)" for no field).
+     */
+    public String getField() {
+        return field;
+    }
+
+    /* package-private */ int[] getSlots() {
+        return slots;
+    }
+
+    /**
+     * Gets the sub-plans of this plan.
+     */
+    public List<FilterPlan> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * True if the plans are structurally equal (same methods, fields and parameter slots).
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof FilterPlan plan))
+            return false;
+        return method == plan.method
+            && field.equals(plan.field)
+            && Arrays.equals(slots, plan.slots)
+            && arguments.equals(plan.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(method, field, Arrays.hashCode(slots), arguments);
+    }
+
+    @Override
+    public String toString() {
+        if (method.isComparison()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(field);
+            sb.append(' ');
+            sb.append(method.toOperatorString());
+            for (int slot : slots) {
+                sb.append(" ?");
+                sb.append(slot);
+            }
+            return sb.toString();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(method.toOperatorString());
+        sb.append(" (");
+        for (int i = 0; i < arguments.size(); ++i) {
+            if (i != 0)
+                sb.append(", ");
+            sb.append(arguments.get(i).toString());
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.backend.database.filtering;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Bounded, thread safe cache of compiled @see{FilterPlan} objects.
+ * <p>
+ * Plans are keyed by entity and by the canonical shape of the filter, so a cache hit skips
+ * validating the Json and compiling the plan. Only the literal values are bound into the new query.
+ * When the cache is full, entries are evicted in second-chance (clock) order.
+ * @author JaarmaCo
+ * @since 2025-10-02
+ * @version 1.0
+ */
+public class FilterPlanCache {
+
+    /**
+     * Number of plans kept by the default cache.
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private static final class Entry {
+
+        private final FilterPlan plan;
+        private volatile boolean referenced = false;
+
+        private Entry(FilterPlan plan) {
+            this.plan = plan;
+        }
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry> plans = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> clock = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a new plan cache.
+     * @param capacity Maximum number of plans to keep.
+     */
+    public FilterPlanCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive.");
+        this.capacity = capacity;
+    }
+
+    private void evict() {
+        while (plans.size() > capacity) {
+            String key = clock.poll();
+            if (null == key)
+                return;
+            Entry entry = plans.get(key);
+            if (null == entry)
+                continue;
+            if (entry.referenced) {
+                entry.referenced = false;
+                clock.add(key);
+            } else if (plans.remove(key, entry)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /* package-private */ FilterPlan getPlan(Class<?> entityClass, FilterShape shape) {
+        String key = entityClass.getName() + shape.getKey();
+        Entry entry = plans.get(key);
+        if (null != entry) {
+            entry.referenced = true;
+            hits.increment();
+            return entry.plan;
+        }
+        misses.increment();
+        FilterPlan plan = FilterPlan.compile(shape);
+        if (null == plans.putIfAbsent(key, new Entry(plan))) {
+            clock.add(key);
+            evict();
+        }
+        return plan;
+    }
+
+    /**
+     * Gets the compiled plan of a Json filter, compiling it on a cache miss.
+     * @param entityClass Entity the filter applies to.
+     * @param json The json object describing the filter.
+     * @return The compiled plan.
+     * @throws IllegalArgumentException Thrown if the Json is not a valid filter.
+     */
+    public FilterPlan getPlan(Class<?> entityClass, JsonNode json) throws IllegalArgumentException {
+        assert null != entityClass;
+        assert null != json;
+        return getPlan(entityClass, new FilterShape(json));
+    }
+
+    /**
+     * Creates a filter as described by the provided Json object, using a cached plan if possible.
+     * @param <Entity> Type of entity to create the filter for.
+     * @param builder The builder used to build the filter.
+     * @param json The json object describing the filter.
+     * @return A filter that corresponds to the describing Json.
+     */
+    public <Entity> Filter<Entity> filterFromJson(FilterBuilder<Entity> builder, JsonNode json) {
+        assert null != builder;
+        assert null != json;
+        FilterShape shape = new FilterShape(json);
+        return getPlan(builder.getEntityClass(), shape).bind(builder, shape.getLiterals());
+    }
+
+    /**
+     * Gets the maximum number of plans kept in the cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of plans currently in the cache.
+     */
+    public int size() {
+        return plans.size();
+    }
+
+    /**
+     * Gets the number of lookups that found a compiled plan.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to compile a plan.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of plans that were evicted to make room for new ones.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Removes all plans from the cache (counters are kept).
+     */
+    public void clear() {
+        plans.clear();
+        clock.clear();
+    }
+
+    /**
+     * Convert the cache statistics to their json representation.
+     */
+    public JsonNode toJson() {
+        return JsonNodeFactory.instance.objectNode()
+            .put("capacity", getCapacity())
+            .put("size", size())
+            .put("hits", getHits())
+            .put("misses", getMisses())
+            .put("evictions", getEvictions());
+    }
+}
@@ -0,0 +1,143 @@
+package com.backend.database.filtering;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * Canonical shape of a Json filter, with all literal operands taken out as parameters.
+ * <p>
+ * Two filters that only differ in their literal values have the same key, and can therefore
+ * share a compiled @see{FilterPlan}. Equal literals share the same parameter slot, so the key
+ * also records which operands are repeated.
+ * @author JaarmaCo
+ * @since 2025-10-02
+ * @version 1.0
+ */
+/* package-private */ final class FilterShape {
+
+    private final JsonNode json;
+    private final String key;
+    private final List<JsonNode> literals = new ArrayList<>();
+    private final Map<JsonNode, Integer> slots = new HashMap<>();
+
+    /**
+     * Compute the shape of a filter.
+     * @param json Json describing the filter (not validated).
+     */
+    /* package-private */ FilterShape(JsonNode json) {
+        assert null != json;
+        StringBuilder sb = new StringBuilder();
+        append(sb, json);
+        this.json = json;
+        this.key = sb.toString();
+    }
+
+    private void appendText(StringBuilder sb, JsonNode json, String property) {
+        if (json.has(property)) {
+            sb.append(property);
+            sb.append(':');
+            sb.append(TextNode.valueOf(json.get(property).asText()).toString());
+            sb.append(';');
+        }
+    }
+
+    private void appendLiteral(StringBuilder sb, JsonNode literal) {
+        char tag;
+        switch (literal.getNodeType()) {
+        case BOOLEAN -> tag = 'b';
+        case NUMBER -> tag = 'n';
+        case STRING -> tag = 's';
+        default -> {
+            // Not a valid operand, keep it verbatim so that compiling the plan reports it.
+            sb.append(literal.toString());
+            return;
+        }
+        }
+        int slot = slots.computeIfAbsent(literal, l -> {
+            literals.add(l);
+            return literals.size() - 1;
+        });
+        sb.append('?');
+        sb.append(slot);
+        sb.append(tag);
+    }
+
+    private void append(StringBuilder sb, JsonNode json) {
+        if (json.isArray()) {
+            sb.append('[');
+            for (JsonNode element : json) {
+                append(sb, element);
+                sb.append(',');
+            }
+            sb.append(']');
+            return;
+        }
+        if (!json.isObject()) {
+            sb.append(json.toString());
+            return;
+        }
+        sb.append('{');
+        appendText(sb, json, "filter");
+        appendText(sb, json, "field");
+        if (json.has("value")) {
+            sb.append("value:");
+            JsonNode value = json.get("value");
+            if (value.isArray()) {
+                // Operand lists of "in" and "between".
+                sb.append('[');
+                for (JsonNode element : value) {
+                    appendLiteral(sb, element);
+                    sb.append(',');
+                }
+                sb.append(']');
+            } else {
+                appendLiteral(sb, value);
+            }
+            sb.append(';');
+        }
+        if (json.has("arguments")) {
+            sb.append("arguments:");
+            append(sb, json.get("arguments"));
+        }
+        sb.append('}');
+    }
+
+    /**
+     * Gets the Json the shape was computed from.
+     */
+    /* package-private */ JsonNode getJson() {
+        return json;
+    }
+
+    /**
+     * Gets the canonical key of the shape.
+     */
+    /* package-private */ String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the literal operands of the filter, indexed by parameter slot.
+     */
+    /* package-private */ List<JsonNode> getLiterals() {
+        return Collections.unmodifiableList(literals);
+    }
+
+    /**
+     * Gets the parameter slot assigned to a literal operand.
+     * @param literal Literal that is part of the filter.
+     * @return Index of the slot.
+     */
+    /* package-private */ int slotOf(JsonNode literal) {
+        Integer slot = slots.get(literal);
+        if (null == slot)
+            throw new IllegalArgumentException("Expected a scalar type.");
+        return slot;
+    }
+}
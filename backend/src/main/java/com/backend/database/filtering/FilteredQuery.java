@@ -1,11 +1,31 @@
 package com.backend.database.filtering;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.SingularAttribute;
 
 /**
  * Class used to send filtered queries to the database.
@@ -16,11 +36,27 @@ import jakarta.persistence.criteria.Root;
  */
 public class FilteredQuery<Entity> {
 
+    /**
+     * Number of rows fetched per round-trip when streaming results.
+     */
+    public static final int STREAM_FETCH_SIZE = 256;
+
+    /**
+     * Sort key of a query. Keys without an attribute (relevance) can not be read back into a cursor.
+     */
+    private record SortKey(Expression<?> path, String name, Optional<SingularAttribute<?, ?>> attribute, boolean descending) {
+
+        private SortKey(Path<?> path, SingularAttribute<?, ?> attribute, boolean descending) {
+            this(path, attribute.getName(), Optional.of(attribute), descending);
+        }
+    }
+
     private final EntityManager manager;
     private final CriteriaBuilder criteriaBuilder;
-    private final CriteriaQuery<Entity> query;
+    private final CriteriaQuery<Object> query;
     private final Root<Entity> root;
     private final Class<Entity> entityClass;
+    private final FieldRegistry fields;
 
     /**
      * Creates a new filtered query.
@@ -32,9 +68,10 @@ public class FilteredQuery<Entity> {
         assert null != entityClass;
         this.manager = manager;
         this.criteriaBuilder = manager.getCriteriaBuilder();
-        this.query = criteriaBuilder.createQuery(entityClass);
+        this.query = criteriaBuilder.createQuery();
         this.root = query.from(entityClass);
         this.entityClass = entityClass;
+        this.fields = FieldRegistry.of(manager.getMetamodel());
     }
 
     /**
@@ -42,7 +79,235 @@ public class FilteredQuery<Entity> {
      * @return A builder configured to work with this particular query.
      */
     public FilterBuilder<Entity> getFilterBuilder() {
-        return new FilterBuilder<>(criteriaBuilder, root, entityClass);
+        return new FilterBuilder<>(criteriaBuilder, root, entityClass, fields);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SingularAttribute<? super Entity, ?> attribute(String field) {
+        return (SingularAttribute<? super Entity, ?>) fields.get(entityClass, field).attribute();
+    }
+
+    /**
+     * Resolves the names of fields to select in a projection.
+     * @param fields Names of the fields, as given by the client.
+     * @return The names of the fields, as declared by the entity.
+     * @throws IllegalArgumentException Thrown if any field does not exist.
+     */
+    public List<String> resolveFields(List<String> fields) throws IllegalArgumentException {
+        assert null != fields;
+        return fields.stream()
+            .map(f -> attribute(f).getName())
+            .distinct()
+            .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SingularAttribute<? super Entity, ?>> primaryKey() {
+        return fields.getPrimaryKey(entityClass).stream()
+            .map(f -> (SingularAttribute<? super Entity, ?>) f.attribute())
+            .collect(Collectors.toList());
+    }
+
+    private boolean isIndexed(String field) {
+        // Relevance is computed for every matching row before sorting.
+        if (Ordering.RELEVANCE.equals(field))
+            return false;
+        Optional<EntityField> searchVector = fields.getSearchVector(entityClass);
+        if (searchVector.isPresent() && searchVector.get().name().equals(field))
+            return searchVector.get().indexed();
+        return fields.get(entityClass, field).indexed();
+    }
+
+    /**
+     * Estimate the cost of running a query.
+     * <p>
+     * Fields are considered indexed as described by @see{FieldRegistry}.
+     * @param spec The query to estimate.
+     * @return The estimated cost.
+     * @throws IllegalArgumentException Thrown if the query refers to a field that does not exist.
+     */
+    public QueryCost estimate(QuerySpec<Entity> spec) throws IllegalArgumentException {
+        assert null != spec;
+        return QueryCost.of(spec, this::isIndexed);
+    }
+
+    /**
+     * Checks that the results of a query can be ordered and paged as specified, without running it.
+     * <p>
+     * Streamed results are written after the response has started, so problems with the ordering
+     * (relevance without a "search" filter) or the cursor (taken from a different ordering) must be
+     * found before that.
+     * @param spec The query to check.
+     * @throws IllegalArgumentException Thrown if the ordering or cursor can not be applied to the query.
+     */
+    public void checkOrdering(QuerySpec<Entity> spec) throws IllegalArgumentException {
+        assert null != spec;
+        List<SortKey> keys = sortKeys(spec.filter(), spec.ordering(), spec.limits());
+        spec.limits().after().ifPresent(cursor -> seekPredicate(keys, cursor));
+    }
+
+    private static Optional<String> searchText(Filter<?> filter) {
+        if (filter.getMethod() == FilteringMethod.SEARCH)
+            return filter.getOperand().map(Object::toString);
+        if (filter.getMethod() == FilteringMethod.NOT)
+            return Optional.empty();
+        for (Filter<?> subFilter : filter.getSubFilters()) {
+            Optional<String> text = searchText(subFilter);
+            if (text.isPresent())
+                return text;
+        }
+        return Optional.empty();
+    }
+
+    private SortKey relevanceKey(Optional<Filter<Entity>> filter, boolean descending) {
+        String text = filter.flatMap(FilteredQuery::searchText)
+            .orElseThrow(() -> new IllegalArgumentException("Ordering by relevance requires a \"search\" filter."));
+        return new SortKey(getFilterBuilder().relevance(text), Ordering.RELEVANCE, Optional.empty(), descending);
+    }
+
+    private List<SortKey> sortKeys(Optional<Filter<Entity>> filter, Ordering ordering, Limits limits) {
+        List<SortKey> keys = new ArrayList<>();
+        boolean descending = false;
+        for (Ordering.Key key : ordering.keys()) {
+            descending = key.isDescending();
+            if (Ordering.RELEVANCE.equals(key.field())) {
+                if (keys.stream().noneMatch(k -> k.name().equals(Ordering.RELEVANCE)))
+                    keys.add(relevanceKey(filter, descending));
+                continue;
+            }
+            SingularAttribute<? super Entity, ?> attribute = attribute(key.field());
+            if (keys.stream().noneMatch(k -> k.name().equals(attribute.getName())))
+                keys.add(new SortKey(root.get(attribute), attribute, descending));
+        }
+        if (ordering.isOrdered() || limits.isLimited() || limits.hasCursor()) {
+            // The primary key breaks ties (in the direction of the last key), so the order is total
+            // and an index on (keys..., primary key) can be scanned in a single direction.
+            for (SingularAttribute<? super Entity, ?> attribute : primaryKey()) {
+                if (keys.stream().noneMatch(k -> k.name().equals(attribute.getName())))
+                    keys.add(new SortKey(root.get(attribute), attribute, descending));
+            }
+        }
+        return keys;
+    }
+
+    private static String signature(List<SortKey> keys) {
+        return keys.stream()
+            .map(k -> k.name() + (k.descending() ? "-" : "+"))
+            .collect(Collectors.joining(","));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate compare(SortKey key, Object value, boolean inclusive) {
+        Expression path = key.path();
+        Comparable operand = (Comparable)value;
+        if (key.descending()) {
+            return inclusive ? criteriaBuilder.lessThanOrEqualTo(path, operand)
+                : criteriaBuilder.lessThan(path, operand);
+        }
+        return inclusive ? criteriaBuilder.greaterThanOrEqualTo(path, operand)
+            : criteriaBuilder.greaterThan(path, operand);
+    }
+
+    /**
+     * Expands (k1, k2, ...) > (v1, v2, ...) into k1 >= v1 AND (k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...).
+     */
+    private Predicate seekPredicate(List<SortKey> keys, Cursor cursor) {
+        if (keys.isEmpty() || cursor.size() != keys.size() || !cursor.getOrdering().equals(signature(keys)))
+            throw new IllegalArgumentException("Cursor does not match the ordering of the query.");
+        if (!isSeekable(keys))
+            throw new IllegalArgumentException("Results ordered by relevance can not be paged with a cursor.");
+
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
+        Object first = null;
+        for (int i = 0; i < keys.size(); ++i) {
+            SortKey key = keys.get(i);
+            Object value = cursor.get(i, key.attribute().get().getJavaType());
+            if (i == 0)
+                first = value;
+            List<Predicate> conjunction = new ArrayList<>(equalPrefix);
+            conjunction.add(compare(key, value, false));
+            alternatives.add(criteriaBuilder.and(conjunction.toArray(Predicate[]::new)));
+            equalPrefix.add(criteriaBuilder.equal(key.path(), value));
+        }
+        // The leading range lets the database seek on an index of the first key.
+        return criteriaBuilder.and(
+            compare(keys.get(0), first, true),
+            criteriaBuilder.or(alternatives.toArray(Predicate[]::new)));
+    }
+
+    private TypedQuery<Object> createQuery(Optional<Filter<Entity>> filter, List<Selection<?>> selections,
+            List<SortKey> keys, Limits limits) {
+        List<Predicate> predicates = new ArrayList<>();
+        filter.ifPresent(f -> predicates.add(f.getPredicate()));
+        limits.after().ifPresent(cursor -> predicates.add(seekPredicate(keys, cursor)));
+
+        CriteriaQuery<Object> q = (selections.isEmpty() ? query.select(root) : query.multiselect(selections))
+            .where(predicates.toArray(Predicate[]::new))
+            .groupBy(List.of())
+            .orderBy(keys.stream()
+                .map(k -> k.descending() ? criteriaBuilder.desc(k.path()) : criteriaBuilder.asc(k.path()))
+                .toList());
+        return manager.createQuery(q)
+            .setMaxResults(limits.maxResults())
+            .setFirstResult(limits.resultsStart());
+    }
+
+    private Stream<Object> createStream(Optional<Filter<Entity>> filter, List<Selection<?>> selections,
+            List<SortKey> keys, Limits limits) {
+        // Hibernate specific hints: fetch in batches through a JDBC cursor, and skip dirty checking.
+        return createQuery(filter, selections, keys, limits)
+            .setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE)
+            .setHint("org.hibernate.readOnly", true)
+            .getResultStream();
+    }
+
+    private static boolean isSeekable(List<SortKey> keys) {
+        return keys.stream().allMatch(k -> k.attribute().isPresent());
+    }
+
+    private static Object keyValue(Object row, Optional<SingularAttribute<?, ?>> key) {
+        if (key.isEmpty())
+            return null;
+        SingularAttribute<?, ?> attribute = key.get();
+        Member member = attribute.getJavaMember();
+        try {
+            if (member instanceof Field field) {
+                field.setAccessible(true);
+                return field.get(row);
+            }
+            if (member instanceof Method method) {
+                method.setAccessible(true);
+                return method.invoke(row);
+            }
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException("Failed to read sort key.", ex);
+        }
+        throw new RuntimeException("Failed to read sort key.");
+    }
+
+    private static List<Object> keyValues(Object row, List<SortKey> keys) {
+        List<Object> values = new ArrayList<>(keys.size());
+        for (SortKey key : keys) {
+            values.add(keyValue(row, key.attribute()));
+        }
+        return values;
+    }
+
+    private Optional<Cursor> nextCursor(List<Object> last, int count, List<SortKey> keys, Limits limits) {
+        if (!limits.isLimited() || null == last || count < limits.maxResults() || last.contains(null)
+                || !isSeekable(keys))
+            return Optional.empty();
+        return Optional.of(Cursor.of(signature(keys), last));
+    }
+
+    private List<Entity> entities(List<Object> rows) {
+        return rows.stream().map(entityClass::cast).toList();
+    }
+
+    private ResultPage<Entity> page(List<Entity> results, List<SortKey> keys, Limits limits) {
+        List<Object> last = results.isEmpty() ? null : keyValues(results.get(results.size() - 1), keys);
+        return new ResultPage<>(results, nextCursor(last, results.size(), keys, limits));
     }
 
     /**
@@ -53,9 +318,11 @@ public class FilteredQuery<Entity> {
      */
     public List<Entity> runQuery(Filter<Entity> filter) {
         assert null != filter;
-        CriteriaQuery<Entity> q = query.select(root)
-            .where(filter.getPredicate());
-        return manager.createQuery(q).getResultList();
+        CriteriaQuery<Object> q = query.select(root)
+            .where(filter.getPredicate())
+            .groupBy(List.of())
+            .orderBy(List.of());
+        return entities(manager.createQuery(q).getResultList());
     }
 
     /**
@@ -69,17 +336,8 @@ public class FilteredQuery<Entity> {
         assert null != filter;
         assert null != ordering;
         assert null != limits;
-        CriteriaQuery<Entity> q = query.select(root)
-            .where(filter.getPredicate());
-        if (ordering.isOrdered()) {
-            q = q.orderBy(ordering.isDescending() ?
-                criteriaBuilder.desc(root.get(ordering.field().toLowerCase()))
-                : criteriaBuilder.asc(root.get(ordering.field().toLowerCase())));
-        }
-        return manager.createQuery(q)
-            .setMaxResults(limits.maxResults())
-            .setFirstResult(limits.resultsStart())
-            .getResultList();
+        return entities(createQuery(Optional.of(filter), List.of(), sortKeys(Optional.of(filter), ordering, limits), limits)
+            .getResultList());
     }
 
     /**
@@ -91,16 +349,395 @@ public class FilteredQuery<Entity> {
     public List<Entity> runQuery(Ordering ordering, Limits limits) {
         assert null != ordering;
         assert null != limits;
+        return entities(createQuery(Optional.empty(), List.of(), sortKeys(Optional.empty(), ordering, limits), limits)
+            .getResultList());
+    }
+
+    /**
+     * Run a query and get a page of the results, along with a cursor to the next page.
+     * <p>
+     * Limited pages are ordered with the primary key as the final tie-breaker, so the cursor
+     * can be passed back in @see{Limits} to seek directly to the next page.
+     * @param filter Filter to apply to the query.
+     * @param ordering How results are ordered.
+     * @param limits Maximum number of results, and where the results start.
+     * @return The fetched page.
+     */
+    public ResultPage<Entity> runPage(Filter<Entity> filter, Ordering ordering, Limits limits) {
+        assert null != filter;
+        assert null != ordering;
+        assert null != limits;
+        return runPage(new QuerySpec<>(Optional.of(filter), ordering, limits));
+    }
+
+    /**
+     * Run an unfiltered query and get a page of the results, along with a cursor to the next page.
+     * @param ordering How results are ordered.
+     * @param limits Maximum number of results, and where the results start.
+     * @return The fetched page.
+     */
+    public ResultPage<Entity> runPage(Ordering ordering, Limits limits) {
+        assert null != ordering;
+        assert null != limits;
+        return runPage(new QuerySpec<>(Optional.empty(), ordering, limits));
+    }
+
+    /**
+     * Run a query specification and get a page of the results.
+     * <p>
+     * Whole entities are always fetched, see @see{FilteredQuery#runProjection} for projections.
+     * @param spec Filter, ordering and limits of the query.
+     * @return The fetched page.
+     */
+    public ResultPage<Entity> runPage(QuerySpec<Entity> spec) {
+        assert null != spec;
+        List<SortKey> keys = sortKeys(spec.filter(), spec.ordering(), spec.limits());
+        return page(entities(createQuery(spec.filter(), List.of(), keys, spec.limits()).getResultList()),
+            keys, spec.limits());
+    }
+
+    /**
+     * Run a query specification and get a page of the results, reading one row past the page.
+     * <p>
+     * The extra row is not returned, it only tells whether there is a next page: unlike
+     * @see{FilteredQuery#runPage}, the cursor is empty when the page is the last one, even if the
+     * page is full, so clients never fetch an empty page.
+     * @param spec Filter, ordering and (finite) limits of the query.
+     * @return The fetched page.
+     */
+    public ResultPage<Entity> runPageAhead(QuerySpec<Entity> spec) {
+        assert null != spec;
+        Limits limits = spec.limits();
+        if (!limits.isLimited())
+            throw new IllegalArgumentException("Reading ahead requires a limited query.");
+        List<SortKey> keys = sortKeys(spec.filter(), spec.ordering(), limits);
+        Limits ahead = new Limits(limits.maxResults() + 1, limits.resultsStart(), limits.after());
+        List<Entity> results = entities(createQuery(spec.filter(), List.of(), keys, ahead).getResultList());
+        if (results.size() <= limits.maxResults())
+            return new ResultPage<>(results, Optional.empty());
+        return page(results.subList(0, limits.maxResults()), keys, limits);
+    }
+
+    /**
+     * Gets the cursor a page of a query specification ending with a row would return, without running the query.
+     * @param spec Filter, ordering and (finite) limits of the query.
+     * @param row A row of the results.
+     * @return Cursor to the results after the row, empty if the results can not be paged with a cursor.
+     */
+    public Optional<Cursor> cursorAfter(QuerySpec<Entity> spec, Entity row) {
+        assert null != spec;
+        assert null != row;
+        List<SortKey> keys = sortKeys(spec.filter(), spec.ordering(), spec.limits());
+        List<Object> last = keyValues(row, keys);
+        if (last.contains(null) || !isSeekable(keys))
+            return Optional.empty();
+        return Optional.of(Cursor.of(signature(keys), last));
+    }
+
+    /**
+     * Run a query, applying ordering and limits, and stream the results.
+     * <p>
+     * The results are fetched lazily through a database cursor, so this must be called within a
+     * (read-only) transaction, and the stream must be closed after use.
+     * @param filter Filter to apply to the query.
+     * @param ordering How results are ordered.
+     * @param limits Maximum number of results, and where the results start.
+     * @return A stream of the fetched records.
+     */
+    public Stream<Entity> runQueryStream(Filter<Entity> filter, Ordering ordering, Limits limits) {
+        assert null != filter;
+        assert null != ordering;
+        assert null != limits;
+        return createStream(Optional.of(filter), List.of(), sortKeys(Optional.of(filter), ordering, limits), limits)
+            .map(entityClass::cast);
+    }
+
+    /**
+     * Run an unfiltered query, applying ordering and limits, and stream the results.
+     * @see FilteredQuery#runQueryStream(Filter, Ordering, Limits)
+     * @param ordering How results are ordered.
+     * @param limits Maximum number of results, and where the results start.
+     * @return A stream of the fetched records.
+     */
+    public Stream<Entity> runQueryStream(Ordering ordering, Limits limits) {
+        assert null != ordering;
+        assert null != limits;
+        return createStream(Optional.empty(), List.of(), sortKeys(Optional.empty(), ordering, limits), limits)
+            .map(entityClass::cast);
+    }
 
-        CriteriaQuery<Entity> q = query.select(root);
-        if (ordering.isOrdered()) {
-            q = q.orderBy(ordering.isDescending() ?
-                criteriaBuilder.desc(root.get(ordering.field().toLowerCase()))
-                : criteriaBuilder.asc(root.get(ordering.field().toLowerCase())));
+    /**
+     * Stream a page of results to a consumer.
+     * <p>
+     * Every row is detached from the persistence context once consumed, so memory use does not
+     * grow with the size of the result. Must be called within a (read-only) transaction.
+     * @param spec Filter, ordering and limits of the query.
+     * @param consumer Receives every row of the page, in order.
+     * @return Cursor to the next page, empty if this was the last page.
+     */
+    public Optional<Cursor> streamPage(QuerySpec<Entity> spec, Consumer<Entity> consumer) {
+        assert null != spec;
+        assert null != consumer;
+        List<SortKey> keys = sortKeys(spec.filter(), spec.ordering(), spec.limits());
+        Entity last = null;
+        int count = 0;
+        try (Stream<Object> rows = createStream(spec.filter(), List.of(), keys, spec.limits())) {
+            for (Object row : (Iterable<Object>)rows::iterator) {
+                Entity entity = entityClass.cast(row);
+                consumer.accept(entity);
+                manager.detach(entity);
+                last = entity;
+                ++count;
+            }
         }
-        return manager.createQuery(q)
-            .setMaxResults(limits.maxResults())
-            .setFirstResult(limits.resultsStart())
-            .getResultList();
+        return nextCursor(null == last ? null : keyValues(last, keys), count, keys, spec.limits());
+    }
+
+    private List<Selection<?>> projection(List<SingularAttribute<? super Entity, ?>> fields, List<SortKey> keys) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size() + keys.size());
+        for (SingularAttribute<? super Entity, ?> field : fields) {
+            selections.add(root.get(field));
+        }
+        // Sort keys are selected after the requested fields, so the next cursor can be read from the row.
+        for (SortKey key : keys) {
+            selections.add(key.path());
+        }
+        return selections;
+    }
+
+    /* package-private */ static JsonNode toJsonValue(Object value) {
+        JsonNodeFactory jb = JsonNodeFactory.instance;
+        if (null == value)
+            return jb.nullNode();
+        if (value instanceof String text)
+            return jb.textNode(text);
+        if (value instanceof Boolean bool)
+            return jb.booleanNode(bool);
+        if (value instanceof Integer number)
+            return jb.numberNode(number);
+        if (value instanceof Long number)
+            return jb.numberNode(number);
+        if (value instanceof Double number)
+            return jb.numberNode(number);
+        if (value instanceof Float number)
+            return jb.numberNode(number);
+        if (value instanceof Timestamp timestamp)
+            return jb.numberNode(timestamp.getTime());
+        return jb.textNode(value.toString());
+    }
+
+    private ObjectNode projectedRow(Object[] row, List<SingularAttribute<? super Entity, ?>> fields) {
+        ObjectNode json = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < fields.size(); ++i) {
+            json.set(fields.get(i).getName(), toJsonValue(row[i]));
+        }
+        return json;
+    }
+
+    private static Object[] columns(Object row) {
+        // A single selection is returned as is, rather than as an array.
+        return row instanceof Object[] array ? array : new Object[] { row };
+    }
+
+    /**
+     * Stream a page of projected results to a consumer.
+     * <p>
+     * Only the columns of the fields in the specification are selected, and rows are never
+     * loaded as managed entities. Must be called within a (read-only) transaction.
+     * @param spec Filter, ordering, limits and fields of the query.
+     * @param consumer Receives a json object of the selected fields for every row of the page, in order.
+     * @return Cursor to the next page, empty if this was the last page.
+     */
+    public Optional<Cursor> streamProjection(QuerySpec<Entity> spec, Consumer<ObjectNode> consumer) {
+        assert null != spec;
+        assert null != consumer;
+        assert spec.isProjection();
+        List<SingularAttribute<? super Entity, ?>> fields = spec.fields().stream()
+            .<SingularAttribute<? super Entity, ?>> map(this::attribute)
+            .toList();
+        List<SortKey> keys = sortKeys(spec.filter(), spec.ordering(), spec.limits());
+        Object[] last = null;
+        int count = 0;
+        try (Stream<Object> rows = createStream(spec.filter(), projection(fields, keys), keys, spec.limits())) {
+            for (Object row : (Iterable<Object>)rows::iterator) {
+                last = columns(row);
+                consumer.accept(projectedRow(last, fields));
+                ++count;
+            }
+        }
+        List<Object> lastKeys = null == last ? null
+            : Arrays.asList(last).subList(fields.size(), fields.size() + keys.size());
+        return nextCursor(lastKeys, count, keys, spec.limits());
+    }
+
+    /**
+     * Run a projected query specification and get a page of the results.
+     * @see FilteredQuery#streamProjection(QuerySpec, Consumer)
+     * @param spec Filter, ordering, limits and fields of the query.
+     * @return The fetched page, with a json object of the selected fields per row.
+     */
+    public ResultPage<ObjectNode> runProjection(QuerySpec<Entity> spec) {
+        assert null != spec;
+        List<ObjectNode> results = new ArrayList<>();
+        Optional<Cursor> next = streamProjection(spec, results::add);
+        return new ResultPage<>(results, next);
+    }
+
+    private EntityField facetKey(String keyField) {
+        EntityField key = fields.get(entityClass, keyField);
+        if (!key.isText())
+            throw new IllegalArgumentException(String.format("Facets expect a text key field, \"%s\" is not.", key.name()));
+        return key;
+    }
+
+    private Optional<EntityField> histogramField(FacetRequest request) {
+        return request.histogram().map(h -> {
+            EntityField field = fields.get(entityClass, h.field());
+            if (!Number.class.isAssignableFrom(field.javaType()))
+                throw new IllegalArgumentException(String.format("Histograms expect a numeric field, \"%s\" is not.", field.name()));
+            return field;
+        });
+    }
+
+    /**
+     * Check that facets can be counted over the records of this query.
+     * @param keyField Text field holding the keys of the index.
+     * @param request Facets and histogram to count.
+     * @throws IllegalArgumentException Thrown if a field does not exist, or has the wrong type.
+     */
+    public void checkFacets(String keyField, FacetRequest request) throws IllegalArgumentException {
+        assert null != keyField;
+        assert null != request;
+        facetKey(keyField);
+        histogramField(request);
+    }
+
+    /**
+     * Count the records that pass a filter into facets, in a single query.
+     * <p>
+     * Only the key field (and the histogram field) of the records are selected, and at most maxRows
+     * records are counted. Must be called within a (read-only) transaction.
+     * @param filter Filter to apply, or Optional.empty() to count all records.
+     * @param keyField Text field holding the keys of the index.
+     * @param request Facets and histogram to count.
+     * @param index Index holding the facets.
+     * @param maxRows Most records to count.
+     * @return The counts, marked incomplete if more than maxRows records pass the filter.
+     * @throws IllegalArgumentException Thrown if a field does not exist, or has the wrong type.
+     */
+    public JsonNode countFacets(Optional<Filter<Entity>> filter, String keyField, FacetRequest request,
+            FacetIndex index, int maxRows) throws IllegalArgumentException {
+        assert null != filter;
+        assert null != index;
+        String key = facetKey(keyField).name();
+        Optional<String> histogram = histogramField(request).map(EntityField::name);
+        List<String> selected = new ArrayList<>(List.of(key));
+        histogram.ifPresent(selected::add);
+
+        FacetCounts counts = new FacetCounts(request, index);
+        boolean[] complete = { true };
+        QuerySpec<Entity> spec = new QuerySpec<>(filter, Ordering.NONE, new Limits(maxRows + 1), selected);
+        streamProjection(spec, row -> {
+            if (counts.getTotal() == maxRows) {
+                complete[0] = false;
+                return;
+            }
+            counts.add(row.get(key).asText(),
+                histogram.map(row::get).filter(JsonNode::isNumber).map(JsonNode::numberValue));
+        });
+        return counts.toJson(complete[0]);
+    }
+
+    private long count(Optional<Filter<Entity>> filter) {
+        CriteriaQuery<Object> q = query.select(criteriaBuilder.count(root))
+            .where(filter.map(f -> new Predicate[] { f.getPredicate() }).orElse(new Predicate[0]))
+            .groupBy(List.of())
+            .orderBy(List.of());
+        return (Long)manager.createQuery(q).getSingleResult();
+    }
+
+    /**
+     * Count the number of records that pass a filter, without fetching them.
+     * @param filter Filter to apply to the query.
+     * @return Number of matching records.
+     */
+    public long count(Filter<Entity> filter) {
+        assert null != filter;
+        return count(Optional.of(filter));
+    }
+
+    /**
+     * Count the total number of records.
+     * @return Number of records.
+     */
+    public long count() {
+        return count(Optional.empty());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Expression<?> aggregateExpression(Aggregate aggregate) {
+        if (aggregate.field().isEmpty())
+            return criteriaBuilder.count(root);
+
+        SingularAttribute<? super Entity, ?> attribute = attribute(aggregate.field().get());
+        Expression path = root.get(attribute);
+        return switch (aggregate.function()) {
+        case COUNT -> criteriaBuilder.count(path);
+        case SUM -> {
+            Class<?> type = attribute.getJavaType();
+            if (!Number.class.isAssignableFrom(type) && !(type.isPrimitive() && type != boolean.class))
+                throw new IllegalArgumentException(String.format("Cannot sum non-numeric field \"%s\".", attribute.getName()));
+            yield criteriaBuilder.sum(path);
+        }
+        case MIN -> criteriaBuilder.least(path);
+        case MAX -> criteriaBuilder.greatest(path);
+        };
+    }
+
+    private List<AggregateRow> aggregate(Optional<Filter<Entity>> filter, Aggregate aggregate, int maxGroups) {
+        Predicate[] where = filter.map(f -> new Predicate[] { f.getPredicate() }).orElse(new Predicate[0]);
+        Expression<?> value = aggregateExpression(aggregate);
+
+        if (!aggregate.isGrouped()) {
+            CriteriaQuery<Object> q = query.select(value)
+                .where(where)
+                .groupBy(List.of())
+                .orderBy(List.of());
+            return List.of(new AggregateRow(null, manager.createQuery(q).getSingleResult()));
+        }
+
+        Path<?> group = root.get(attribute(aggregate.groupBy().get()));
+        CriteriaQuery<Object> q = query.multiselect(group, value)
+            .where(where)
+            .groupBy(group)
+            .orderBy(criteriaBuilder.asc(group));
+        return manager.createQuery(q).setMaxResults(maxGroups).getResultList().stream()
+            .map(FilteredQuery::columns)
+            .map(row -> new AggregateRow(row[0], row[1]))
+            .toList();
+    }
+
+    /**
+     * Compute an aggregate over the records that pass a filter, in a single SQL aggregate query.
+     * @param filter Filter to apply to the query.
+     * @param aggregate Function, field and grouping of the aggregate.
+     * @param maxGroups Most groups to return (the first ones by the grouped field).
+     * @return One row per group (ordered by the grouped field), or a single row with no group if ungrouped.
+     */
+    public List<AggregateRow> aggregate(Filter<Entity> filter, Aggregate aggregate, int maxGroups) {
+        assert null != filter;
+        assert null != aggregate;
+        return aggregate(Optional.of(filter), aggregate, maxGroups);
+    }
+
+    /**
+     * Compute an aggregate over all records, in a single SQL aggregate query.
+     * @param aggregate Function, field and grouping of the aggregate.
+     * @param maxGroups Most groups to return (the first ones by the grouped field).
+     * @return One row per group (ordered by the grouped field), or a single row with no group if ungrouped.
+     */
+    public List<AggregateRow> aggregate(Aggregate aggregate, int maxGroups) {
+        assert null != aggregate;
+        return aggregate(Optional.empty(), aggregate, maxGroups);
     }
 }
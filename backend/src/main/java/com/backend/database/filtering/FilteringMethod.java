@@ -30,6 +30,26 @@ public enum FilteringMethod {
      */
     LIKE(3),
 
+    /**
+     * Filter using the SQL IN operator (equal to any of a list of values).
+     */
+    IN(4),
+
+    /**
+     * Filter on an exclusive range, equivalent to greater AND less on the same field.
+     */
+    BETWEEN(5),
+
+    /**
+     * Full-text search of the searchable text of an entity (see @see{Searchable}).
+     */
+    SEARCH(6),
+
+    /**
+     * Filter on the facets (e.g. classes) a key belongs to, using the installed @see{FacetIndex}.
+     */
+    FACET(7),
+
     /**
      * Invert result of sub-filters.
      */
@@ -72,6 +92,13 @@ public enum FilteringMethod {
         return value >= NOT.value;
     }
 
+    /**
+     * True if the filtering method compares against a list of values rather than a single one.
+     */
+    public boolean isMultiValued() {
+        return this == IN || this == BETWEEN || this == FACET;
+    }
+
     /**
      * Gets the string representation of the filter.
      */
@@ -82,6 +109,10 @@ public enum FilteringMethod {
             case 1 -> "greater";
             case 2 -> "equals";
             case 3 -> "like";
+            case 4 -> "in";
+            case 5 -> "between";
+            case 6 -> "search";
+            case 7 -> "facet";
             case 99 -> "not";
             case 100 -> "or";
             default -> "and";
@@ -97,6 +128,10 @@ public enum FilteringMethod {
             case 1 -> ">";
             case 2 -> "=";
             case 3 -> "LIKE";
+            case 4 -> "IN";
+            case 5 -> "BETWEEN";
+            case 6 -> "@@";
+            case 7 -> "IN FACETS";
             case 99 -> "NOT";
             case 100 -> "OR";
             default -> "AND";
@@ -114,6 +149,10 @@ public enum FilteringMethod {
             case "greater" -> Optional.of(GREATER);
             case "equals" -> Optional.of(EQUALS);
             case "like" -> Optional.of(LIKE);
+            case "in" -> Optional.of(IN);
+            case "between" -> Optional.of(BETWEEN);
+            case "search" -> Optional.of(SEARCH);
+            case "facet" -> Optional.of(FACET);
             case "not" -> Optional.of(NOT);
             case "or" -> Optional.of(OR);
             case "and" -> Optional.of(AND);
@@ -2,8 +2,11 @@ package com.backend.database.filtering;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 
 /**
@@ -19,62 +22,19 @@ public abstract class JsonToFilterConverter {
 
     private JsonToFilterConverter() {}
 
-    private static Object jsonValue(JsonNode json) {
-        return switch (json.getNodeType()) {
-        case BOOLEAN -> json.asBoolean();
-        case NUMBER -> json.numberValue();
-        case STRING -> json.asText();
-        default -> throw new IllegalArgumentException("Expected a scalar type."); 
-        };
-    }
-
-    private static <Entity> Filter<Entity> comparisonFilterFromJson(FilterBuilder<Entity> builder, JsonNode json, FilteringMethod method) {
-
-        if (!json.has("field"))
-            throw new IllegalArgumentException("Missing expected field \"field\"");
-
-        if (!json.has("value"))
-            throw new IllegalArgumentException("Missing expected field \"value\"");
-
-        String field = json.get("field").asText();
-        JsonNode rhs = json.get("value");
-
-        return switch (method) {
-        case LESS
-            -> builder.lessThan(field, rhs.numberValue());
-        case GREATER
-            -> builder.greaterThan(field, rhs.numberValue());
-        case EQUALS
-            -> builder.equalTo(field, jsonValue(rhs));
-        case LIKE
-            -> builder.like(field, rhs.asText());
-        default
-            -> throw new IllegalArgumentException("Invalid method.");
-        };   
-    }
+    private static final FilterPlanCache planCache = new FilterPlanCache(FilterPlanCache.DEFAULT_CAPACITY);
 
-    private static <Entity> Filter<Entity> booleanFilterFromJson(FilterBuilder<Entity> builder, JsonNode json, FilteringMethod method) {
-        if (!json.has("arguments"))
-            throw new IllegalArgumentException("Missing expected field \"arguments\"");
-
-        List<Filter<Entity>> subFilters = new ArrayList<>();
-        for (JsonNode subFilter : json.get("arguments")) {
-            subFilters.add(filterFromJson(builder, subFilter));
-        }
-        return switch (method) {
-        case NOT
-            -> builder.not(subFilters.get(0));
-        case OR
-            -> builder.or(subFilters);
-        case AND
-            -> builder.and(subFilters);
-        default
-            -> throw new IllegalArgumentException("Invalid method.");
-        };
+    /**
+     * Gets the cache of compiled filter plans shared by all converted filters.
+     */
+    public static FilterPlanCache getPlanCache() {
+        return planCache;
     }
 
     /**
      * Creates a filter as described by the provided Json object.
+     * <p>
+     * Plans are cached by the shape of the Json, so repeated shapes only have their values bound.
      * @param <Entity> Type of entity to create the filter for.
      * @param builder The builder used to build the filter.
      * @param json The json object describing the filter.
@@ -84,22 +44,80 @@ public abstract class JsonToFilterConverter {
         assert null != builder;
         assert null != json;
 
-        if (json.isArray()) {
-            List<Filter<Entity>> filters = new ArrayList<>();
-            for (JsonNode subnode : json) {
-                filters.add(filterFromJson(builder, subnode));
-            }
-            return builder.and(filters);
+        return planCache.filterFromJson(builder, json);
+    }
+
+    /**
+     * Reads the limits of a query from the specified json.
+     * @param json The json containing the properties of the query.
+     * @return The limits of the query.
+     */
+    public static Limits limitsFromJson(JsonNode json) {
+        assert null != json;
+
+        int start = 0;
+        int maxResults = Integer.MAX_VALUE;
+
+        if (json.has("first"))
+            start = json.get("first").asInt();
+        if (json.has("max_count"))
+            maxResults = json.get("max_count").asInt();
+
+        if (json.has("after"))
+            return new Limits(maxResults, start, Optional.of(Cursor.decode(json.get("after").asText())));
+        return new Limits(maxResults, start);
+    }
+
+    private static List<String> fieldsFromJson(JsonNode json) {
+        if (!json.isArray())
+            throw new IllegalArgumentException("Expected \"fields\" to be an array.");
+        List<String> fields = new ArrayList<>();
+        for (JsonNode field : json) {
+            if (!field.isTextual())
+                throw new IllegalArgumentException("Expected \"fields\" to contain field names.");
+            fields.add(field.asText());
         }
+        return fields;
+    }
+
+    /**
+     * Translate ordering, limits and filters from the specified json, without running the query.
+     * @param <Entity> Entity type to query.
+     * @param query Query to construct.
+     * @param json The json containing the properties of the json to run.
+     * @return The validated query specification.
+     */
+    public static <Entity> QuerySpec<Entity> specFromJson(FilteredQuery<Entity> query, JsonNode json) {
+        assert null != query;
+        assert null != json;
+
+        Ordering order = json.has("sorting") ? Ordering.fromJson(json.get("sorting")) : Ordering.NONE;
+        Limits limits = limitsFromJson(json);
+        List<String> fields = json.has("fields") ? query.resolveFields(fieldsFromJson(json.get("fields"))) : List.of();
+        Optional<Filter<Entity>> filter = json.has("filters") ?
+            Optional.of(filterFromJson(query.getFilterBuilder(), json.get("filters"))) : Optional.empty();
 
-        if (!json.has("filter"))
-            throw new IllegalArgumentException("Missing required property \"filter\".");
+        QuerySpec<Entity> spec = new QuerySpec<>(filter, order, limits, fields);
+        query.checkOrdering(spec);
+        return spec;
+    }
+
+    /**
+     * Translate ordering, limits and filters from the specified json, and admit the query to a budget.
+     * @param <Entity> Entity type to query.
+     * @param query Query to construct.
+     * @param json The json containing the properties of the json to run.
+     * @param budget Budget of the query. The number of results is clamped to it.
+     * @return The validated query specification.
+     * @throws QueryBudgetExceededException Thrown if the query is too expensive.
+     */
+    public static <Entity> QuerySpec<Entity> specFromJson(FilteredQuery<Entity> query, JsonNode json, QueryBudget budget)
+            throws QueryBudgetExceededException {
+        assert null != budget;
 
-        FilteringMethod method = FilteringMethod.parse(json.get("filter").asText());
-        return switch (method) {
-            case NOT, OR, AND -> booleanFilterFromJson(builder, json, method);
-            default -> comparisonFilterFromJson(builder, json, method);
-        };
+        QuerySpec<Entity> spec = budget.clamp(specFromJson(query, json));
+        query.estimate(spec).check(budget);
+        return spec;
     }
 
     /**
@@ -112,24 +130,94 @@ public abstract class JsonToFilterConverter {
     public static <Entity> List<Entity> runQueryFromJson(FilteredQuery<Entity> query, JsonNode json) {
         assert null != query;
         assert null != json;
+        return query.runPage(specFromJson(query, json)).results();
+    }
 
-        Ordering order;
-        Limits limits;
-        order = json.has("sorting") ? Ordering.fromJson(json.get("sorting")) : Ordering.NONE;
-        
-        int start = 0;
-        int maxResults = Integer.MAX_VALUE;
+    /**
+     * Translate ordering, limits and filters from the specified json and fetch a page of results.
+     * @param <Entity> Entity type to query.
+     * @param query Query to construct.
+     * @param json The json containing the properties of the json to run.
+     * @return The page of results, with a cursor to the next page.
+     */
+    public static <Entity> ResultPage<Entity> runPageFromJson(FilteredQuery<Entity> query, JsonNode json) {
+        assert null != query;
+        assert null != json;
+        return query.runPage(specFromJson(query, json));
+    }
 
-        if (json.has("first"))
-            start = json.get("first").asInt();
-        if (json.has("max_count"))
-            maxResults = json.get("max_count").asInt();
+    /**
+     * Translate the filters and aggregate ("aggregate" and "group_by") from the specified json and compute the aggregate.
+     * @param <Entity> Entity type to query.
+     * @param query Query to construct.
+     * @param json The json containing the properties of the query.
+     * @return The aggregated value if ungrouped, otherwise an array of group/value objects.
+     */
+    public static <Entity> JsonNode runAggregateFromJson(FilteredQuery<Entity> query, JsonNode json) {
+        return runAggregateFromJson(query, json, QueryBudget.UNLIMITED);
+    }
 
-        limits = new Limits(maxResults, start);
-        
-        if (json.has("filters")) {
-            return query.runQuery(filterFromJson(query.getFilterBuilder(), json.get("filters")), order, limits);
-        }
-        return query.runQuery(order, limits);
+    /**
+     * Translate the filters and aggregate ("aggregate" and "group_by") from the specified json and compute the aggregate.
+     * @param <Entity> Entity type to query.
+     * @param query Query to construct.
+     * @param json The json containing the properties of the query.
+     * @param budget Budget the filters and grouping of the query must fit in, and most groups to return.
+     * @return The aggregated value if ungrouped, otherwise an array of group/value objects.
+     * @throws QueryBudgetExceededException Thrown if the query is too expensive.
+     */
+    public static <Entity> JsonNode runAggregateFromJson(FilteredQuery<Entity> query, JsonNode json, QueryBudget budget)
+            throws QueryBudgetExceededException {
+        assert null != query;
+        assert null != json;
+        assert null != budget;
+
+        Aggregate aggregate = Aggregate.fromJson(json.get("aggregate"), json.get("group_by"));
+        Optional<Filter<Entity>> filter = json.has("filters") ?
+            Optional.of(filterFromJson(query.getFilterBuilder(), json.get("filters")))
+            : Optional.empty();
+        // Groups are sorted by the grouped field, and at most max-rows of them are returned.
+        int maxGroups = aggregate.isGrouped() ? budget.maxRows() : 1;
+        Ordering ordering = aggregate.groupBy().map(Ordering::ascending).orElse(Ordering.NONE);
+        query.estimate(new QuerySpec<>(filter, ordering, new Limits(maxGroups))).check(budget);
+
+        List<AggregateRow> rows = filter.isPresent() ?
+            query.aggregate(filter.get(), aggregate, maxGroups)
+            : query.aggregate(aggregate, maxGroups);
+
+        if (!aggregate.isGrouped())
+            return rows.get(0).toJson().get("value");
+        return JsonNodeFactory.instance.arrayNode()
+            .addAll(rows.stream().map(AggregateRow::toJson).toList());
+    }
+
+    /**
+     * Translate the filters and facets ("facets") from the specified json, without counting them yet.
+     * <p>
+     * The facets are counted over every result passing the filters, with the installed @see{FacetIndex}.
+     * @param <Entity> Entity type to query.
+     * @param query Query to construct (not the query of the results, since the facets are counted separately).
+     * @param json The json containing the properties of the query.
+     * @param keyField Text field of the entity holding the keys of the index.
+     * @param budget Budget the filters of the query must fit in.
+     * @param maxRows Most results to count.
+     * @return Counts the facets when called (within a read-only transaction), as described by @see{FacetCounts}.
+     * @throws QueryBudgetExceededException Thrown if the query is too expensive.
+     */
+    public static <Entity> Supplier<JsonNode> facetsFromJson(FilteredQuery<Entity> query, JsonNode json, String keyField,
+            QueryBudget budget, int maxRows) throws QueryBudgetExceededException {
+        assert null != query;
+        assert null != json;
+        assert null != keyField;
+        assert null != budget;
+
+        FacetIndex index = FacetIndex.installed();
+        FacetRequest request = FacetRequest.fromJson(json.get("facets"), index);
+        query.checkFacets(keyField, request);
+        Optional<Filter<Entity>> filter = json.has("filters") ?
+            Optional.of(filterFromJson(query.getFilterBuilder(), json.get("filters")))
+            : Optional.empty();
+        query.estimate(new QuerySpec<>(filter, Ordering.NONE, new Limits(1))).check(budget);
+        return () -> query.countFacets(filter, keyField, request, index, maxRows);
     }
 }
@@ -0,0 +1,35 @@
+package com.backend.database.filtering;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.spi.TypeConfiguration;
+
+/**
+ * Registers the function used by @see{FilteringMethod#FACET} to match keys against a set of keys.
+ * <p>
+ * An in predicate binds one parameter per key, which is limited to 32767 parameters per statement,
+ * and makes a new statement for every number of keys. The set is bound as a single array instead:
+ * <ul>
+ * <li>key_in(value, keys): value = ANY(keys)</li>
+ * </ul>
+ * Registered through META-INF/services.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public class KeyFunctions implements FunctionContributor {
+
+    /**
+     * Name of the membership function.
+     */
+    public static final String KEY_IN = "key_in";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functions) {
+        TypeConfiguration types = functions.getTypeConfiguration();
+        functions.getFunctionRegistry().registerPattern(KEY_IN,
+            "(?1 = ANY(?2))",
+            types.getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
@@ -1,17 +1,29 @@
 package com.backend.database.filtering;
 
+import java.util.Optional;
+
 /**
  * Specifies the limits of a query result.
  * @param maxResults Maximum number of results that will be returned by the query.
  * @param resultsStart Index of the first result in the query.
+ * @param after Cursor of the last row of the previous page, results start after it (keyset pagination).
  */
-public record Limits(int maxResults, int resultsStart) {
+public record Limits(int maxResults, int resultsStart, Optional<Cursor> after) {
 
     /**
      * Limits value for a non-limited result.
      */
     public static final Limits NOT_LIMITED = new Limits(Integer.MAX_VALUE, 0);
 
+    /**
+     * Create a new limits instance.
+     * @param maxResults Maximum number of allowed results.
+     * @param resultsStart Index of the first result in the query.
+     */
+    public Limits(int maxResults, int resultsStart) {
+        this(maxResults, resultsStart, Optional.empty());
+    }
+
     /**
      * Create a new limits instance.
      * @param maxResults Maximum number of allowed results.
@@ -19,4 +31,27 @@ public record Limits(int maxResults, int resultsStart) {
     public Limits(int maxResults) {
         this(maxResults, 0);
     }
+
+    /**
+     * Create a new limits instance that continues after a cursor.
+     * @param maxResults Maximum number of allowed results.
+     * @param after Cursor of the last row of the previous page.
+     */
+    public Limits(int maxResults, Cursor after) {
+        this(maxResults, 0, Optional.of(after));
+    }
+
+    /**
+     * True if the number of results is limited.
+     */
+    public boolean isLimited() {
+        return maxResults != Integer.MAX_VALUE;
+    }
+
+    /**
+     * True if results are paged using a cursor.
+     */
+    public boolean hasCursor() {
+        return after.isPresent();
+    }
 }
@@ -1,84 +1,157 @@
 package com.backend.database.filtering;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Ordering applied to filtered queries.
- * 
- * @param field Field refered to in the ordering.
- * @param direction Value < 0 means descending order, > 0 ascending and 0 no ordering.
+ * <p>
+ * Results are sorted by every key in turn, later keys only deciding the order of rows that
+ * are equal in all earlier keys. @see{FilteredQuery} always appends the primary key of the
+ * entity as the final key, so the order is total.
+ *
+ * @param keys Sort keys, in order of precedence.
  */
-public record Ordering(String field, int direction) {
+public record Ordering(List<Ordering.Key> keys) {
 
     /**
-     * Value passed when no ordering is to be applied.
+     * A single sort key.
+     *
+     * @param field Field refered to in the ordering.
+     * @param direction Value < 0 means descending order, > 0 ascending and 0 no ordering.
      */
-    public static final Ordering NONE = new Ordering("", 0);
+    public record Key(String field, int direction) {
+
+        /**
+         * Convert to a sort key from a json object.
+         */
+        public static Key fromJson(JsonNode node) {
+            String field = "";
+            int dir = 0;
+
+            if (node.has("field"))
+                field = node.get("field").asText();
+
+            if (node.has("ordering"))
+                dir = switch (node.get("ordering").asText()) {
+                    case "ascending" -> 1;
+                    case "descending" -> -1;
+                    default -> 0;
+                };
+
+            if (dir != 0 && field.isEmpty())
+                throw new IllegalArgumentException("Field not specified in asc/desc ordering.");
+
+            return new Key(field, dir);
+        }
+
+        /**
+         * True if the key is in ascending order.
+         */
+        public boolean isAscending() {
+            return direction > 0;
+        }
+
+        /**
+         * True if the key is in descending order.
+         */
+        public boolean isDescending() {
+            return direction < 0;
+        }
+    }
 
     /**
-     * Convert to Ordering from a json object.
+     * Name of the pseudo field that orders results by how well they match the search filter of the query.
      */
-    public static Ordering fromJson(JsonNode node) {
-        String field = "";
-        int dir = 0;
+    public static final String RELEVANCE = "relevance";
 
-        if (node.has("field"))
-            field = node.get("field").asText();
+    /**
+     * Value passed when no ordering is to be applied.
+     */
+    public static final Ordering NONE = new Ordering(List.of());
 
-        if (node.has("ordering"))
-            dir = switch (node.get("ordering").asText()) {
-                case "ascending" -> 1;
-                case "descending" -> -1;
-                default -> 0;
-            };
+    /**
+     * Creates a new ordering, dropping keys that apply no ordering.
+     */
+    public Ordering {
+        assert null != keys;
+        keys = keys.stream()
+            .filter(k -> k.direction() != 0)
+            .toList();
+    }
 
-        if (dir != 0 && field.isEmpty())
-            throw new IllegalArgumentException("Field not specified in asc/desc ordering.");
+    /**
+     * Convert to Ordering from a json array of sort keys (or a single sort key object).
+     */
+    public static Ordering fromJson(JsonNode node) {
+        if (!node.isArray())
+            return new Ordering(List.of(Key.fromJson(node)));
 
-        return new Ordering(field, dir); 
+        List<Key> keys = new ArrayList<>();
+        for (JsonNode key : node) {
+            keys.add(Key.fromJson(key));
+        }
+        return new Ordering(keys);
     }
 
     /**
      * Creates an ascending ordering.
-     * @param field Field to order by.  
+     * @param field Field to order by.
      */
     public static Ordering ascending(String field) {
-        return new Ordering(field, 1);
+        return new Ordering(List.of(new Key(field, 1)));
     }
 
     /**
      * Creates an descending ordering.
-     * @param field Field to order by.  
+     * @param field Field to order by.
      */
     public static Ordering descending(String field) {
-        return new Ordering(field, -1);
+        return new Ordering(List.of(new Key(field, -1)));
+    }
+
+    /**
+     * Creates an ordering by relevance to the search filter of the query, best matches first.
+     */
+    public static Ordering byRelevance() {
+        return descending(RELEVANCE);
+    }
+
+    private Ordering then(Key key) {
+        List<Key> result = new ArrayList<>(keys);
+        result.add(key);
+        return new Ordering(result);
     }
 
     /**
-     * True if the ordering in in ascending order.
+     * Creates an ordering that orders ties of this ordering in ascending order.
+     * @param field Field to order ties by.
      */
-    public boolean isAscending() {
-        return direction > 0;
+    public Ordering thenAscending(String field) {
+        return then(new Key(field, 1));
     }
 
     /**
-     * True if the ordereing is in descending order. 
+     * Creates an ordering that orders ties of this ordering in descending order.
+     * @param field Field to order ties by.
      */
-    public boolean isDescending() {
-        return direction < 0;
+    public Ordering thenDescending(String field) {
+        return then(new Key(field, -1));
     }
 
     /**
      * True if no ordering is applied.
      */
     public boolean isUnordered() {
-        return direction == 0;
+        return keys.isEmpty();
     }
 
     /**
      * True if ordering is either ascending or descending.
      */
     public boolean isOrdered() {
-        return direction != 0;
+        return !keys.isEmpty();
     }
 }
@@ -0,0 +1,59 @@
+package com.backend.database.filtering;
+
+import java.util.Optional;
+
+/**
+ * Limits on how expensive a user supplied query may be.
+ * <p>
+ * Queries requesting more rows than allowed are clamped to the maximum number of rows (the response
+ * then carries a cursor to the remaining results). Queries that exceed any of the other limits are
+ * rejected, see @see{QueryCost#check}.
+ * @param maxCost Maximum estimated cost, as computed by @see{QueryCost}.
+ * @param maxNodes Maximum number of nodes in the filter tree.
+ * @param maxDepth Maximum depth of the filter tree.
+ * @param maxRows Maximum number of rows returned by a single query.
+ */
+public record QueryBudget(long maxCost, int maxNodes, int maxDepth, int maxRows) {
+
+    /**
+     * Budget that admits every query.
+     */
+    public static final QueryBudget UNLIMITED = new QueryBudget(Long.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Creates a new budget.
+     */
+    public QueryBudget {
+        if (maxCost < 1 || maxNodes < 1 || maxDepth < 1 || maxRows < 1)
+            throw new IllegalArgumentException("Query budgets must be positive.");
+    }
+
+    /**
+     * Clamps the number of requested rows to the budget.
+     * @param limits Limits requested by the client.
+     * @return The limits, with at most maxRows results.
+     */
+    public Limits clamp(Limits limits) {
+        assert null != limits;
+        if (limits.maxResults() <= maxRows)
+            return limits;
+        return new Limits(maxRows, limits.resultsStart(), limits.after());
+    }
+
+    /**
+     * Clamps the number of requested rows of a query to the budget.
+     * @param <Entity> Database entity to query.
+     * @param spec Query requested by the client.
+     * @return The query, with at most maxRows results.
+     */
+    public <Entity> QuerySpec<Entity> clamp(QuerySpec<Entity> spec) {
+        assert null != spec;
+        return new QuerySpec<>(spec.filter(), spec.ordering(), clamp(spec.limits()), spec.fields());
+    }
+
+    /* package-private */ static Optional<String> exceeded(String what, long value, long limit) {
+        if (value <= limit)
+            return Optional.empty();
+        return Optional.of(String.format("%s %d exceeds the limit of %d.", what, value, limit));
+    }
+}
@@ -0,0 +1,29 @@
+package com.backend.database.filtering;
+
+/**
+ * Thrown when a query is rejected for exceeding its @see{QueryBudget}.
+ * @author JaarmaCo
+ * @since 2025-10-07
+ * @version 1.0
+ */
+public class QueryBudgetExceededException extends IllegalArgumentException {
+
+    private final QueryCost cost;
+
+    /**
+     * Create a new exception.
+     * @param message Description of the exceeded limit, safe to return to the client.
+     * @param cost Estimated cost of the rejected query.
+     */
+    public QueryBudgetExceededException(String message, QueryCost cost) {
+        super(message);
+        this.cost = cost;
+    }
+
+    /**
+     * Gets the estimated cost of the rejected query.
+     */
+    public QueryCost getCost() {
+        return cost;
+    }
+}
@@ -0,0 +1,113 @@
+package com.backend.database.filtering;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Estimated cost of a filtered query, computed before the query is run.
+ * <p>
+ * Every filter node costs @see{NODE_COST}. Comparisons on fields without an index cost an extra
+ * @see{UNINDEXED_COST}, since they can not be answered without scanning, and like patterns starting
+ * with a wildcard cost @see{LEADING_WILDCARD_COST} (no index can be used for them). Every sort key
+ * on an unindexed field costs @see{UNINDEXED_COST}, and every @see{ROWS_PER_COST} rows read
+ * (including the rows skipped by "first") cost one more.
+ * @param nodes Number of nodes in the filter tree (values of in and facet filters included).
+ * @param depth Depth of the filter tree.
+ * @param rows Number of rows read by the query.
+ * @param cost Total estimated cost.
+ * @author JaarmaCo
+ * @since 2025-10-07
+ * @version 1.0
+ */
+public record QueryCost(int nodes, int depth, long rows, long cost) {
+
+    /**
+     * Cost of every node in the filter.
+     */
+    public static final long NODE_COST = 1;
+
+    /**
+     * Additional cost of filtering or sorting on a field without an index.
+     */
+    public static final long UNINDEXED_COST = 10;
+
+    /**
+     * Additional cost of a like pattern that starts with a wildcard.
+     */
+    public static final long LEADING_WILDCARD_COST = 50;
+
+    /**
+     * Number of rows read per unit of cost.
+     */
+    public static final long ROWS_PER_COST = 50;
+
+    private static final QueryCost NONE = new QueryCost(0, 0, 0, 0);
+
+    private QueryCost plus(QueryCost other) {
+        return new QueryCost(nodes + other.nodes, Math.max(depth, other.depth), rows + other.rows, cost + other.cost);
+    }
+
+    private static boolean hasLeadingWildcard(Optional<?> pattern) {
+        return pattern
+            .map(p -> p.toString().startsWith("%") || p.toString().startsWith("_"))
+            .orElse(false);
+    }
+
+    private static QueryCost of(Filter<?> filter, Predicate<String> indexed) {
+        FilteringMethod method = filter.getMethod();
+        if (method.isComparison()) {
+            int values = method == FilteringMethod.IN || method == FilteringMethod.FACET
+                ? ((Collection<?>) filter.getOperand().get()).size() : 1;
+            long cost = NODE_COST * values;
+            if (!indexed.test(filter.getField()))
+                cost += UNINDEXED_COST;
+            if (method == FilteringMethod.LIKE && hasLeadingWildcard(filter.getOperand()))
+                cost += LEADING_WILDCARD_COST;
+            return new QueryCost(values, 1, 0, cost);
+        }
+        QueryCost total = NONE;
+        for (Filter<?> subFilter : filter.getSubFilters()) {
+            total = total.plus(of(subFilter, indexed));
+        }
+        return new QueryCost(total.nodes + 1, total.depth + 1, 0, total.cost + NODE_COST);
+    }
+
+    /**
+     * Estimate the cost of a query.
+     * @param spec The query to estimate.
+     * @param indexed Tests if a field has an index.
+     * @return The estimated cost.
+     */
+    /* package-private */ static QueryCost of(QuerySpec<?> spec, Predicate<String> indexed) {
+        assert null != spec;
+        assert null != indexed;
+
+        QueryCost total = spec.filter().map(f -> of(f, indexed)).orElse(NONE);
+        for (Ordering.Key key : spec.ordering().keys()) {
+            if (!indexed.test(key.field()))
+                total = total.plus(new QueryCost(0, 0, 0, UNINDEXED_COST));
+        }
+        Limits limits = spec.limits();
+        long rows = limits.isLimited() ? (long) limits.resultsStart() + limits.maxResults() : Integer.MAX_VALUE;
+        return total.plus(new QueryCost(0, 0, rows, rows / ROWS_PER_COST));
+    }
+
+    /**
+     * Check that the query fits in a budget.
+     * @param budget The budget to check against.
+     * @throws QueryBudgetExceededException Thrown if any limit of the budget is exceeded.
+     */
+    public void check(QueryBudget budget) throws QueryBudgetExceededException {
+        assert null != budget;
+        Optional<String> exceeded = Stream.of(
+                QueryBudget.exceeded("Filter node count", nodes, budget.maxNodes()),
+                QueryBudget.exceeded("Filter depth", depth, budget.maxDepth()),
+                QueryBudget.exceeded("Estimated query cost", cost, budget.maxCost()))
+            .flatMap(Optional::stream)
+            .findFirst();
+        if (exceeded.isPresent())
+            throw new QueryBudgetExceededException(exceeded.get(), this);
+    }
+}
@@ -0,0 +1,32 @@
+package com.backend.database.filtering;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A parsed, but not yet executed, filtered query.
+ * @param <Entity> Database entity to query.
+ * @param filter Filter to apply, or Optional.empty() for an unfiltered query.
+ * @param ordering How results are ordered.
+ * @param limits Maximum number of results, and where the results start.
+ * @param fields Fields to select, or an empty list to select whole entities.
+ */
+public record QuerySpec<Entity>(Optional<Filter<Entity>> filter, Ordering ordering, Limits limits, List<String> fields) {
+
+    /**
+     * Create a specification that selects whole entities.
+     * @param filter Filter to apply, or Optional.empty() for an unfiltered query.
+     * @param ordering How results are ordered.
+     * @param limits Maximum number of results, and where the results start.
+     */
+    public QuerySpec(Optional<Filter<Entity>> filter, Ordering ordering, Limits limits) {
+        this(filter, ordering, limits, List.of());
+    }
+
+    /**
+     * True if only some fields are selected, rather than whole entities.
+     */
+    public boolean isProjection() {
+        return !fields.isEmpty();
+    }
+}
@@ -0,0 +1,14 @@
+package com.backend.database.filtering;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of results from a filtered query.
+ * @param <Entity> Database entity that was queried.
+ * @param results Rows of the page.
+ * @param next Cursor to pass in @see{Limits} to get the next page, empty if this was the last page.
+ */
+public record ResultPage<Entity>(List<Entity> results, Optional<Cursor> next) {
+
+}
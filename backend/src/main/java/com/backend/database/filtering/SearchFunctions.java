@@ -0,0 +1,87 @@
+package com.backend.database.filtering;
+
+import java.util.List;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.sql.ast.tree.expression.QueryLiteral;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.spi.TypeConfiguration;
+
+/**
+ * Registers the Postgres full-text search functions used by @see{FilteringMethod#SEARCH}.
+ * <p>
+ * Criteria queries can not express the @@ operator directly, and only the operator (not the
+ * function behind it) can use the GIN index of a search vector. The vector is not mapped (see
+ * @see{Searchable}), so the functions take a column of the row being searched and the name of the
+ * vector column of the same table, and are rendered as:
+ * <ul>
+ * <li>fts_match(row, 'column', text): row.column @@ websearch_to_tsquery('english', text)</li>
+ * <li>fts_rank(row, 'column', text): ts_rank(row.column, websearch_to_tsquery('english', text))</li>
+ * </ul>
+ * Registered through META-INF/services.
+ * @author JaarmaCo
+ * @since 2025-10-09
+ * @version 1.0
+ */
+public class SearchFunctions implements FunctionContributor {
+
+    /**
+     * Name of the match function.
+     */
+    public static final String MATCH = "fts_match";
+
+    /**
+     * Name of the relevance function.
+     */
+    public static final String RANK = "fts_rank";
+
+    private static final class VectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+        private final String prefix;
+        private final String operator;
+
+        private VectorFunction(String name, BasicType<?> type, String prefix, String operator) {
+            super(name, StandardArgumentsValidators.exactly(3), StandardFunctionReturnTypeResolvers.invariant(type), null);
+            this.prefix = prefix;
+            this.operator = operator;
+        }
+
+        @Override
+        public void render(SqlAppender sql, List<? extends SqlAstNode> arguments, ReturnableType<?> returnType,
+            SqlAstTranslator<?> walker) {
+            ColumnReference row = arguments.get(0) instanceof Expression e ? e.getColumnReference() : null;
+            if (null == row || !(arguments.get(1) instanceof QueryLiteral<?> column))
+                throw new IllegalStateException(String.format("Function %s expects a column and a literal column name.", getName()));
+            sql.appendSql(prefix);
+            if (null != row.getQualifier()) {
+                sql.appendSql(row.getQualifier());
+                sql.appendSql('.');
+            }
+            sql.appendSql(column.getLiteralValue().toString());
+            sql.appendSql(operator);
+            sql.appendSql("websearch_to_tsquery('english', ");
+            arguments.get(2).accept(walker);
+            sql.appendSql("))");
+        }
+    }
+
+    @Override
+    public void contributeFunctions(FunctionContributions functions) {
+        TypeConfiguration types = functions.getTypeConfiguration();
+        functions.getFunctionRegistry().register(MATCH, new VectorFunction(MATCH,
+            types.getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN), "(", " @@ "));
+        functions.getFunctionRegistry().register(RANK, new VectorFunction(RANK,
+            types.getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE), "ts_rank(", ", "));
+    }
+}
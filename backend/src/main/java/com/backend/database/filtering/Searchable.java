@@ -0,0 +1,27 @@
+package com.backend.database.filtering;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the (tsvector) column of the table of an entity that @see{FilteringMethod#SEARCH} filters match against.
+ * <p>
+ * The column is not mapped to a field, so that loading entities does not read the vector: the search
+ * functions reference it on the row of the entity (see @see{SearchFunctions}). The vector must be built
+ * with the 'english' text search configuration, and should have a GIN index. It can not be filtered,
+ * sorted or selected directly.
+ * @author JaarmaCo
+ * @since 2025-10-09
+ * @version 1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Searchable {
+
+    /**
+     * Name of the vector column.
+     */
+    String value();
+}
@@ -0,0 +1,195 @@
+package com.backend.database.history;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Search history entries waiting to be written.
+ * <p>
+ * Entries are kept at most once per (user, charity) pair: a visit replaces a pending skim of the same
+ * charity, and repeated searches are merged. A pair written less than the deduplication window ago is
+ * not written again, unless it is now visited. When the buffer holds its capacity, new pairs are shed.
+ * Adding an entry never blocks.
+ * @author JaarmaCo
+ * @since 2025-10-14
+ * @version 1.0
+ */
+public class SearchHistoryBuffer {
+
+    /**
+     * A search history entry.
+     * @param username User that searched.
+     * @param charity Charity found by the search.
+     * @param visited Whether the user opened the page of the charity.
+     */
+    public record Entry(String username, String charity, boolean visited) {}
+
+    private record Key(String username, String charity) {}
+
+    private record Written(boolean visited, long at) {}
+
+    private final int capacity;
+    private final long window;
+    private final LongSupplier clock;
+    private final Map<Key, Boolean> pending = new ConcurrentHashMap<>();
+    private final Map<Key, Written> recent = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Create a new buffer.
+     * @param capacity Most entries waiting to be written.
+     * @param window Time within which a written pair is not written again.
+     */
+    public SearchHistoryBuffer(int capacity, Duration window) {
+        this(capacity, window, System::nanoTime);
+    }
+
+    /**
+     * Create a new buffer.
+     * @param capacity Most entries waiting to be written.
+     * @param window Time within which a written pair is not written again.
+     * @param clock Source of the current time in nanoseconds.
+     */
+    public SearchHistoryBuffer(int capacity, Duration window, LongSupplier clock) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive.");
+        if (window.isNegative())
+            throw new IllegalArgumentException("Window can not be negative.");
+        assert null != clock;
+        this.capacity = capacity;
+        this.window = window.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Adds an entry to be written.
+     * @return False if the entry was shed because the buffer is full.
+     */
+    public boolean offer(String username, String charity, boolean visited) {
+        assert null != username;
+        assert null != charity;
+        Key key = new Key(username, charity);
+        Written last = recent.get(key);
+        if (null != last && (last.visited() || !visited) && clock.getAsLong() - last.at() < window) {
+            deduplicated.increment();
+            return true;
+        }
+        if (pending.size() >= capacity && !pending.containsKey(key)) {
+            shed.increment();
+            return false;
+        }
+        Boolean previous = pending.putIfAbsent(key, visited);
+        if (null == previous) {
+            accepted.increment();
+            return true;
+        }
+        if (visited && !previous)
+            pending.merge(key, true, Boolean::logicalOr);
+        deduplicated.increment();
+        return true;
+    }
+
+    /**
+     * Takes entries to be written. Every batch taken must be passed to @see{#complete}.
+     * @param max Most entries to take.
+     * @return The entries, at most one per (user, charity) pair.
+     */
+    public List<Entry> drain(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, pending.size()));
+        Iterator<Map.Entry<Key, Boolean>> it = pending.entrySet().iterator();
+        while (entries.size() < max && it.hasNext()) {
+            Map.Entry<Key, Boolean> e = it.next();
+            if (pending.remove(e.getKey(), e.getValue()))
+                entries.add(new Entry(e.getKey().username(), e.getKey().charity(), e.getValue()));
+        }
+        return entries;
+    }
+
+    /**
+     * Completes a batch taken from the buffer.
+     * @param entries Entries returned by @see{#drain}.
+     * @param success True if the entries were written, false if they were lost.
+     */
+    public void complete(List<Entry> entries, boolean success) {
+        if (!success) {
+            failed.add(entries.size());
+            return;
+        }
+        long now = clock.getAsLong();
+        entries.forEach(e -> recent.merge(new Key(e.username(), e.charity()), new Written(e.visited(), now),
+            (a, b) -> new Written(a.visited() || b.visited(), b.at())));
+        written.add(entries.size());
+    }
+
+    /**
+     * Forgets pairs written longer than the deduplication window ago.
+     */
+    public void prune() {
+        long now = clock.getAsLong();
+        recent.values().removeIf(w -> now - w.at() >= window);
+    }
+
+    /**
+     * Number of entries waiting to be written.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * Number of entries merged into a pending or recently written entry.
+     */
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Number of entries dropped because the buffer was full.
+     */
+    public long getShed() {
+        return shed.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * Number of entries lost because their batch failed to be written.
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Gets runtime statistics of the buffer.
+     */
+    public JsonNode toJson() {
+        return JsonNodeFactory.instance.objectNode()
+            .put("size", size())
+            .put("capacity", capacity)
+            .put("accepted", getAccepted())
+            .put("deduplicated", getDeduplicated())
+            .put("shed", getShed())
+            .put("written", getWritten())
+            .put("failed", getFailed());
+    }
+}
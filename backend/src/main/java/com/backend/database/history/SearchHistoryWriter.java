@@ -0,0 +1,123 @@
+package com.backend.database.history;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.backend.ApplicationProperties;
+import com.backend.database.history.SearchHistoryBuffer.Entry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes the search history of users (the SearchedCharities table) in the background.
+ * <p>
+ * Entries are collected in a @see{SearchHistoryBuffer}, and written on an interval with one multi-row
+ * INSERT ... ON CONFLICT DO UPDATE per batch. A pair that is already in the table keeps being visited
+ * once visited, and its insert time is moved to the latest search. A @see{SearchHistoryWritten} event
+ * is published after every batch written.
+ * @author JaarmaCo
+ * @since 2025-10-14
+ * @version 1.0
+ */
+@Component
+public class SearchHistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchHistoryWriter.class);
+
+    private static final String INSERT = "INSERT INTO SearchedCharities(username, charity, visited) VALUES ";
+
+    private static final String ON_CONFLICT = """
+
+        ON CONFLICT (username, charity) DO UPDATE SET
+            visited = SearchedCharities.visited OR EXCLUDED.visited,
+            insertTime = CURRENT_TIMESTAMP
+        """;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    private SearchHistoryBuffer buffer;
+
+    @PostConstruct
+    public void init() {
+        ApplicationProperties.SearchHistoryProperties history = properties.getSearchHistory();
+        buffer = new SearchHistoryBuffer(history.getCapacity(), history.getDeduplicationWindow());
+    }
+
+    /**
+     * Adds an entry to the search history of a user, to be written on the next flush.
+     * @param username User that searched.
+     * @param charity Charity found by the search.
+     * @param visited Whether the user opened the page of the charity.
+     * @return False if the entry was shed because too many entries are waiting to be written.
+     */
+    public boolean add(String username, String charity, boolean visited) {
+        return buffer.offer(username, charity, visited);
+    }
+
+    /**
+     * Gets the buffer of entries waiting to be written.
+     */
+    public SearchHistoryBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Writes every entry waiting in the buffer.
+     */
+    @Scheduled(fixedDelayString = "${benesphere.search-history.flush-interval:PT1S}")
+    public void flush() {
+        List<Entry> entries;
+        while (!(entries = buffer.drain(properties.getSearchHistory().getBatchSize())).isEmpty()) {
+            boolean success = false;
+            try {
+                write(entries);
+                success = true;
+            } catch (RuntimeException ex) {
+                log.error("Failed to write {} search history entries: {}", entries.size(), ex.getMessage());
+            } finally {
+                buffer.complete(entries, success);
+            }
+            if (!success)
+                break;
+            try {
+                events.publishEvent(new SearchHistoryWritten(entries));
+            } catch (RuntimeException ex) {
+                log.error("Failed to handle written search history: {}", ex.getMessage());
+            }
+        }
+        buffer.prune();
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private void write(List<Entry> entries) {
+        List<Object> arguments = new ArrayList<>(3 * entries.size());
+        for (Entry entry : entries) {
+            arguments.add(entry.username());
+            arguments.add(entry.charity());
+            arguments.add(entry.visited());
+        }
+        String sql = INSERT + String.join(", ", Collections.nCopies(entries.size(), "(?, ?, ?)")) + ON_CONFLICT;
+        jdbcTemplate.update(sql, arguments.toArray());
+    }
+}
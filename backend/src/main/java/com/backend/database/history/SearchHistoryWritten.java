@@ -0,0 +1,15 @@
+package com.backend.database.history;
+
+import java.util.List;
+
+import com.backend.database.history.SearchHistoryBuffer.Entry;
+
+/**
+ * Published by @see{SearchHistoryWriter} after a batch of search history entries was written.
+ * Entries deduplicated by the buffer are not part of any batch.
+ * @param entries The entries written.
+ * @author JaarmaCo
+ * @since 2025-10-15
+ * @version 1.0
+ */
+public record SearchHistoryWritten(List<Entry> entries) {}
@@ -0,0 +1,76 @@
+package com.backend.database.jobs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.backend.ApplicationProperties;
+
+/**
+ * Reads the description file of every charity into CharityInfo.descriptionText, from which the search
+ * vector of the charity is generated (see @see{FilteringMethod#SEARCH}).
+ * <p>
+ * The files are read from benesphere.descriptions.directory once the application is ready, and only
+ * descriptions that changed are written. Files that are missing, or outside of the directory, are skipped,
+ * leaving the description as it was.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+@Component
+public class DescriptionIngester {
+
+    private static final Logger log = LoggerFactory.getLogger(DescriptionIngester.class);
+
+    private static final String UPDATE = """
+        UPDATE CharityInfo SET descriptionText = ?
+            WHERE charity = ? AND descriptionText IS DISTINCT FROM ?
+        """;
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ingest() {
+        String directory = properties.getDescriptions().getDirectory();
+        if (null == directory || directory.isBlank())
+            return;
+        Path root = Path.of(directory).toAbsolutePath().normalize();
+        try {
+            List<Object[]> updates = new ArrayList<>();
+            int missing = 0;
+            List<Map<String, Object>> files = jdbcTemplate.queryForList(
+                "SELECT charity, charityDescriptionFile FROM CharityInfo");
+            for (Map<String, Object> row : files) {
+                Path file = root.resolve((String) row.get("charityDescriptionFile")).normalize();
+                if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+                    ++missing;
+                    continue;
+                }
+                String text = Files.readString(file, StandardCharsets.UTF_8).strip();
+                updates.add(new Object[] { text, row.get("charity"), text });
+            }
+            int changed = 0;
+            for (int count : jdbcTemplate.batchUpdate(UPDATE, updates))
+                changed += Math.max(count, 0);
+            log.info("Ingested {} charity descriptions ({} changed, {} files missing).", updates.size(), changed, missing);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Failed to ingest charity descriptions: {}", ex.getMessage());
+        }
+    }
+}
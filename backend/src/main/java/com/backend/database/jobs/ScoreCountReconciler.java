@@ -0,0 +1,105 @@
+package com.backend.database.jobs;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.database.ranking.LeaderboardService;
+import com.backend.database.repositories.CharityScoreCountsRepository;
+import com.backend.database.repositories.CommentsRepository;
+import com.backend.database.repositories.CommentsRepository.CommentRef;
+
+/**
+ * Periodically recounts the votes of every charity, repairing CharityScoreCounts rows that drifted
+ * from CharityScores (e.g. through racing votes of the same user, or votes changed outside the application).
+ * The leaderboard is reloaded from the recounted scores. The vote counts of comments are recounted
+ * from CommentScores the same way, in batches of comments locked as votes on them lock them.
+ * @author JaarmaCo
+ * @since 2025-10-10
+ * @version 1.0
+ */
+@Component
+public class ScoreCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoreCountReconciler.class);
+
+    /**
+     * Number of charities (or comments) recounted per transaction, which blocks votes on them while it runs.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private CharityScoreCountsRepository scoreCountsRepository;
+
+    @Autowired
+    private CommentsRepository commentsRepository;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Recounts the votes once the application is ready, which counts the votes loaded by data.sql, and
+     * periodically after that.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${benesphere.scores.reconcile-interval:PT10M}",
+        fixedDelayString = "${benesphere.scores.reconcile-interval:PT10M}")
+    public void reconcile() {
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.executeWithoutResult(status -> scoreCountsRepository.createMissing());
+            // Counts are recounted under the lock votes write them with: a recount of a snapshot taken
+            // before a concurrent vote committed would otherwise overwrite the vote's increment.
+            int drifted = 0;
+            String[] after = { "" };
+            while (true) {
+                Integer corrected = transaction.execute(status -> {
+                    List<String> charities = scoreCountsRepository.lockBatch(after[0], BATCH_SIZE);
+                    if (charities.isEmpty())
+                        return null;
+                    after[0] = charities.get(charities.size() - 1);
+                    return scoreCountsRepository.reconcile(charities);
+                });
+                if (null == corrected)
+                    break;
+                drifted += corrected;
+            }
+            if (0 != drifted)
+                log.warn("Corrected the vote counts of {} charities.", drifted);
+            int driftedComments = 0;
+            CommentRef[] last = { null };
+            while (true) {
+                Integer corrected = transaction.execute(status -> {
+                    int afterId = null == last[0] ? Integer.MIN_VALUE : last[0].getCommentId();
+                    String afterCharity = null == last[0] ? "" : last[0].getCharity();
+                    List<CommentRef> comments = commentsRepository.lockBatch(afterId, afterCharity, BATCH_SIZE);
+                    if (comments.isEmpty())
+                        return null;
+                    last[0] = comments.get(comments.size() - 1);
+                    return commentsRepository.reconcile(afterId, afterCharity,
+                        last[0].getCommentId(), last[0].getCharity());
+                });
+                if (null == corrected)
+                    break;
+                driftedComments += corrected;
+            }
+            if (0 != driftedComments)
+                log.warn("Corrected the vote counts of {} comments.", driftedComments);
+        } catch (RuntimeException ex) {
+            log.error("Failed to recount the votes: {}", ex.getMessage());
+        } finally {
+            leaderboardService.reload();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.backend.database.ranking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Charities ordered by total score (highest first, ties by orgId), kept in memory.
+ * <p>
+ * Reading the top of the board is proportional to the number of entries read. Finding the rank of a
+ * charity is proportional to its rank. Updates move a charity by removing and adding it, so they hold
+ * a write lock, and reads a read lock: readers see every charity exactly once, and a reset as a whole.
+ * @author JaarmaCo
+ * @since 2025-10-12
+ * @version 1.0
+ */
+public class Leaderboard {
+
+    /**
+     * A charity on the board.
+     * @param charity orgId of the charity.
+     * @param totalScore Up votes minus down votes.
+     * @param rank Position on the board, starting at 1 (or 0 if unknown).
+     */
+    public record Entry(String charity, long totalScore, long rank) {
+
+        public JsonNode toJson() {
+            return JsonNodeFactory.instance.objectNode()
+                .put("charity", charity)
+                .put("totalScore", totalScore)
+                .put("rank", rank);
+        }
+    }
+
+    private record Position(long totalScore, String charity) {}
+
+    private static final Comparator<Position> ORDER = Comparator
+        .comparingLong(Position::totalScore).reversed()
+        .thenComparing(Position::charity);
+
+    private final Map<String, Long> scores = new ConcurrentHashMap<>();
+    private final NavigableSet<Position> board = new ConcurrentSkipListSet<>(ORDER);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Moves a charity to a new total score (or off the board), the write lock must be held.
+     */
+    private void move(String charity, Long previous, Long totalScore) {
+        if (null != previous)
+            board.remove(new Position(previous, charity));
+        if (null != totalScore)
+            board.add(new Position(totalScore, charity));
+    }
+
+    /**
+     * Sets the total score of a charity.
+     */
+    public void set(String charity, long totalScore) {
+        assert null != charity;
+        lock.writeLock().lock();
+        try {
+            move(charity, scores.put(charity, totalScore), totalScore);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds to the total score of a charity (adding the charity if it is not on the board).
+     */
+    public void add(String charity, long delta) {
+        assert null != charity;
+        lock.writeLock().lock();
+        try {
+            Long previous = scores.get(charity);
+            long totalScore = (null == previous ? 0 : previous) + delta;
+            scores.put(charity, totalScore);
+            move(charity, previous, totalScore);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a charity from the board.
+     */
+    public void remove(String charity) {
+        assert null != charity;
+        lock.writeLock().lock();
+        try {
+            move(charity, scores.remove(charity), null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces every entry of the board.
+     * @param totalScores Total score of every charity.
+     */
+    public void reset(Map<String, Long> totalScores) {
+        assert null != totalScores;
+        lock.writeLock().lock();
+        try {
+            totalScores.forEach(this::set);
+            scores.keySet().stream()
+                .filter(c -> !totalScores.containsKey(c))
+                .toList()
+                .forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the highest ranked charities.
+     * @param count Most entries to return.
+     * @return The entries, highest ranked first.
+     */
+    public List<Entry> top(int count) {
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(count, size())));
+            Iterator<Position> it = board.iterator();
+            while (entries.size() < count && it.hasNext()) {
+                Position p = it.next();
+                entries.add(new Entry(p.charity(), p.totalScore(), entries.size() + 1));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the entry of a charity.
+     * @return The entry, or Optional.empty() if the charity is not on the board.
+     */
+    public Optional<Entry> get(String charity) {
+        lock.readLock().lock();
+        try {
+            Long totalScore = scores.get(charity);
+            if (null == totalScore)
+                return Optional.empty();
+            Position p = new Position(totalScore, charity);
+            return Optional.of(new Entry(charity, totalScore, board.headSet(p).size() + 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the charities ranked around a charity.
+     * @param charity Charity at the center of the window.
+     * @param radius Most entries to return above and below the charity.
+     * @return The entries, highest ranked first, or an empty list if the charity is not on the board.
+     */
+    public List<Entry> around(String charity, int radius) {
+        lock.readLock().lock();
+        try {
+            Long totalScore = scores.get(charity);
+            if (null == totalScore)
+                return List.of();
+            Position center = new Position(totalScore, charity);
+            NavigableSet<Position> above = board.headSet(center, false);
+            long rank = above.size() + 1;
+
+            List<Position> window = new ArrayList<>(2 * radius + 1);
+            Iterator<Position> up = above.descendingIterator();
+            while (window.size() < radius && up.hasNext())
+                window.add(0, up.next());
+            long first = rank - window.size();
+            Iterator<Position> down = board.tailSet(center, true).iterator();
+            for (int i = 0; i <= radius && down.hasNext(); ++i)
+                window.add(down.next());
+
+            List<Entry> entries = new ArrayList<>(window.size());
+            for (Position p : window)
+                entries.add(new Entry(p.charity(), p.totalScore(), first + entries.size()));
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether a charity is on the board, without ranking it.
+     */
+    public boolean contains(String charity) {
+        lock.readLock().lock();
+        try {
+            return scores.containsKey(charity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of charities on the board.
+     */
+    public int size() {
+        return scores.size();
+    }
+}
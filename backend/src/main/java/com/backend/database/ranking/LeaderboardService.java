@@ -0,0 +1,75 @@
+package com.backend.database.ranking;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.backend.database.repositories.CharityScoreCountsRepository;
+import com.backend.database.repositories.CharityScoreCountsRepository.CharityTotal;
+import com.backend.database.votes.VoteBuffer.Delta;
+import com.backend.database.votes.VoteWriter;
+import com.backend.database.votes.VotesWritten;
+
+/**
+ * Keeps the @see{Leaderboard} of all charities in sync with the database.
+ * <p>
+ * The board is loaded from CharityScoreCounts whenever the counts are recounted (@see{ScoreCountReconciler},
+ * which also recounts them once the application is ready). In between, it is updated with every batch of votes written.
+ * <p>
+ * The scores are read while no votes are being written (@see{VoteWriter#whileNotWriting}), so every batch
+ * is counted once: either it is in the scores read, or it is applied to the board after the load.
+ * @author JaarmaCo
+ * @since 2025-10-12
+ * @version 1.0
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    @Autowired
+    private CharityScoreCountsRepository scoreCountsRepository;
+
+    @Autowired
+    private VoteWriter voteWriter;
+
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    private void apply(Map<String, Delta> deltas) {
+        deltas.forEach((charity, delta) -> {
+            if (!delta.isNone())
+                leaderboard.add(charity, delta.positive() - delta.negative());
+        });
+    }
+
+    /**
+     * Loads the total score of every charity from the database.
+     */
+    public synchronized void reload() {
+        try {
+            int loaded = voteWriter.whileNotWriting(() -> {
+                Map<String, Long> totals = scoreCountsRepository.findAllTotals().stream()
+                    .collect(Collectors.toMap(CharityTotal::getCharity, CharityTotal::getTotalScore));
+                leaderboard.reset(totals);
+                return totals.size();
+            });
+            log.info("Loaded the scores of {} charities into the leaderboard.", loaded);
+        } catch (RuntimeException ex) {
+            log.error("Failed to load the leaderboard: {}", ex.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onVotesWritten(VotesWritten event) {
+        apply(event.deltas());
+    }
+}
@@ -0,0 +1,192 @@
+package com.backend.database.ranking;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Exponentially decayed activity scores of charities, kept in memory.
+ * <p>
+ * An event of weight w at time t is worth w * 2^(-(now - t) / halfLife). Instead of decaying every
+ * score as time passes, events are scaled up by 2^((t - epoch) / halfLife) when added, so the stored
+ * scores of all charities share one decay factor and keep their order. The epoch is moved forward
+ * (rescaling every score) before the scale factor grows too large.
+ * @author JaarmaCo
+ * @since 2025-10-15
+ * @version 1.0
+ */
+public class TrendingScores {
+
+    /**
+     * A charity and its decayed score.
+     * @param rank Position among the trending charities, starting at 1.
+     */
+    public record Entry(String charity, double score, long rank) {
+
+        public JsonNode toJson() {
+            return JsonNodeFactory.instance.objectNode()
+                .put("charity", charity)
+                .put("score", score)
+                .put("rank", rank);
+        }
+    }
+
+    /**
+     * Number of half-lives after which the epoch is moved forward.
+     */
+    private static final double REBASE_HALF_LIVES = 64;
+
+    private final double halfLife;
+    private final LongSupplier clock;
+    private final Map<String, Double> scores = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebase = new ReentrantReadWriteLock();
+    private volatile long epoch;
+
+    /**
+     * Create empty scores.
+     * @param halfLife Time it takes the weight of an event to halve.
+     */
+    public TrendingScores(Duration halfLife) {
+        this(halfLife, System::currentTimeMillis);
+    }
+
+    /**
+     * Create empty scores.
+     * @param halfLife Time it takes the weight of an event to halve.
+     * @param clock Source of the current time in milliseconds.
+     */
+    public TrendingScores(Duration halfLife, LongSupplier clock) {
+        if (halfLife.isNegative() || halfLife.isZero())
+            throw new IllegalArgumentException("Half-life must be positive.");
+        assert null != clock;
+        this.halfLife = halfLife.toMillis();
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+    }
+
+    private double halfLivesSinceEpoch(long time) {
+        return (time - epoch) / halfLife;
+    }
+
+    private void rebaseIfNeeded(long now) {
+        if (halfLivesSinceEpoch(now) < REBASE_HALF_LIVES)
+            return;
+        rebase.writeLock().lock();
+        try {
+            double exponent = halfLivesSinceEpoch(now);
+            if (exponent < REBASE_HALF_LIVES)
+                return;
+            double factor = Math.pow(2, -exponent);
+            scores.replaceAll((c, s) -> s * factor);
+            epoch = now;
+        } finally {
+            rebase.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an event of a charity.
+     * @param charity Charity the event is about.
+     * @param weight Weight of the event.
+     * @param time Time of the event, in milliseconds.
+     */
+    public void add(String charity, double weight, long time) {
+        assert null != charity;
+        if (0 == weight)
+            return;
+        rebaseIfNeeded(clock.getAsLong());
+        rebase.readLock().lock();
+        try {
+            scores.merge(charity, weight * Math.pow(2, halfLivesSinceEpoch(time)), Double::sum);
+        } finally {
+            rebase.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an event of a charity that happens now.
+     */
+    public void add(String charity, double weight) {
+        add(charity, weight, clock.getAsLong());
+    }
+
+    /**
+     * Gets the current (decayed) score of a charity.
+     */
+    public double get(String charity) {
+        rebase.readLock().lock();
+        try {
+            Double score = scores.get(charity);
+            return null == score ? 0 : score * Math.pow(2, -halfLivesSinceEpoch(clock.getAsLong()));
+        } finally {
+            rebase.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the charities with the highest current scores.
+     * @param count Most entries to return.
+     * @return The entries, highest score first.
+     */
+    public List<Entry> top(int count) {
+        if (count < 1)
+            return List.of();
+        double factor;
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(count + 1,
+            Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        rebase.readLock().lock();
+        try {
+            factor = Math.pow(2, -halfLivesSinceEpoch(clock.getAsLong()));
+            for (Map.Entry<String, Double> e : scores.entrySet()) {
+                best.add(Map.entry(e.getKey(), e.getValue()));
+                if (best.size() > count)
+                    best.poll();
+            }
+        } finally {
+            rebase.readLock().unlock();
+        }
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(best);
+        sorted.sort(best.comparator().reversed());
+        List<Entry> entries = new ArrayList<>(sorted.size());
+        for (Map.Entry<String, Double> e : sorted)
+            entries.add(new Entry(e.getKey(), e.getValue() * factor, entries.size() + 1));
+        return entries;
+    }
+
+    /**
+     * Gets the current score of every charity, dropping charities whose score decayed below a minimum.
+     * @param minimum Smallest score kept.
+     * @return The current scores of the charities kept.
+     */
+    public Map<String, Double> snapshot(double minimum) {
+        rebaseIfNeeded(clock.getAsLong());
+        Map<String, Double> current = new HashMap<>();
+        rebase.readLock().lock();
+        try {
+            double factor = Math.pow(2, -halfLivesSinceEpoch(clock.getAsLong()));
+            scores.entrySet().removeIf(e -> e.getValue() * factor < minimum);
+            scores.forEach((c, s) -> current.put(c, s * factor));
+        } finally {
+            rebase.readLock().unlock();
+        }
+        return current;
+    }
+
+    /**
+     * Gets the number of charities with a score.
+     */
+    public int size() {
+        return scores.size();
+    }
+}
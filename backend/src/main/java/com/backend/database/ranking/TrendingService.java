@@ -0,0 +1,139 @@
+package com.backend.database.ranking;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.ApplicationProperties;
+import com.backend.database.history.SearchHistoryWritten;
+import com.backend.database.votes.VotesWritten;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the @see{TrendingScores} of charities: up votes and page visits, decayed with a configurable
+ * half-life (benesphere.trending.*).
+ * <p>
+ * Scores are updated with every batch of votes and search history written, and checkpointed to the
+ * TrendingScores table on an interval, so a restart only has to read one row per trending charity.
+ * Events between the last checkpoint and a restart are lost.
+ * @author JaarmaCo
+ * @since 2025-10-15
+ * @version 1.0
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    private static final String UPSERT = """
+        INSERT INTO TrendingScores(charity, score, updateTime)
+            VALUES (?, ?, ?)
+        ON CONFLICT (charity) DO UPDATE SET
+            score = EXCLUDED.score,
+            updateTime = EXCLUDED.updateTime
+        """;
+
+    private static final String DELETE_DECAYED = "DELETE FROM TrendingScores WHERE updateTime < ?";
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TrendingScores scores;
+
+    private volatile boolean restored = false;
+
+    @PostConstruct
+    public void init() {
+        scores = new TrendingScores(properties.getTrending().getHalfLife());
+    }
+
+    public TrendingScores getScores() {
+        return scores;
+    }
+
+    /**
+     * Loads the last checkpoint.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            jdbcTemplate.query("SELECT charity, score, updateTime FROM TrendingScores", row -> {
+                scores.add(row.getString("charity"), row.getDouble("score"),
+                    row.getTimestamp("updateTime").getTime());
+            });
+            restored = true;
+            log.info("Restored the trending scores of {} charities.", scores.size());
+        } catch (RuntimeException ex) {
+            log.error("Failed to restore the trending scores: {}", ex.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onVotesWritten(VotesWritten event) {
+        double weight = properties.getTrending().getVoteWeight();
+        event.deltas().forEach((charity, delta) -> {
+            if (delta.positive() > 0)
+                scores.add(charity, weight * delta.positive());
+        });
+    }
+
+    @EventListener
+    public void onSearchHistoryWritten(SearchHistoryWritten event) {
+        double weight = properties.getTrending().getVisitWeight();
+        event.entries().stream()
+            .filter(e -> e.visited())
+            .forEach(e -> scores.add(e.charity(), weight));
+    }
+
+    /**
+     * Writes the current scores to the TrendingScores table, and removes the scores that decayed
+     * below the minimum.
+     */
+    @Scheduled(initialDelayString = "${benesphere.trending.checkpoint-interval:PT5M}",
+        fixedDelayString = "${benesphere.trending.checkpoint-interval:PT5M}")
+    public void checkpoint() {
+        if (!restored) {
+            // Do not overwrite a checkpoint that was never read.
+            restore();
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Map<String, Double> current = scores.snapshot(properties.getTrending().getMinimumScore());
+        List<Object[]> rows = current.entrySet().stream()
+            .map(e -> new Object[] { e.getKey(), e.getValue(), now })
+            .toList();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!rows.isEmpty())
+                    jdbcTemplate.batchUpdate(UPSERT, rows);
+                jdbcTemplate.update(DELETE_DECAYED, now);
+            });
+        } catch (RuntimeException ex) {
+            log.error("Failed to checkpoint the trending scores: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        checkpoint();
+    }
+}
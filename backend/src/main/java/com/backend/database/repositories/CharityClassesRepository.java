@@ -0,0 +1,15 @@
+package com.backend.database.repositories;
+
+import com.backend.database.entities.*;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository into the DB table of classes that charities can be classified into.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public interface CharityClassesRepository extends JpaRepository<CharityClass, String> {
+
+}
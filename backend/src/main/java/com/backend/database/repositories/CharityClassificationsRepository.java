@@ -0,0 +1,27 @@
+package com.backend.database.repositories;
+
+import com.backend.database.entities.*;
+import com.backend.database.entities.keys.CharityClassificationKey;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository into the DB table of the classes every charity belongs to.
+ * @author JaarmaCo
+ * @since 2025-10-16
+ * @version 1.0
+ */
+public interface CharityClassificationsRepository extends JpaRepository<CharityClassification, CharityClassificationKey> {
+
+    /**
+     * Gets the classes of a charity.
+     * @param charity The charity.
+     * @return The classifications of the charity.
+     */
+    @Query("SELECT c FROM CharityClassification c WHERE c.charity = :charity")
+    public List<CharityClassification> findByCharity(@Param("charity") String charity);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -26,4 +27,10 @@ public interface CharityRepository extends JpaRepository<Charity, String>{
      */
     @Query("SELECT c FROM Charity c WHERE c.orgId=:orgId")
     public Optional<Charity> findByOrgID(@Param("orgId") String orgId);
+
+    /**
+     * Returns the organization IDs of all charities.
+     */
+    @Query("SELECT c.orgId FROM Charity c")
+    public List<String> findAllIds();
 }
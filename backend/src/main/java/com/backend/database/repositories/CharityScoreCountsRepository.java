@@ -0,0 +1,105 @@
+package com.backend.database.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.backend.database.entities.CharityScoreCount;
+
+/**
+ * Repository for the CharityScoreCounts table.
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-10
+ */
+public interface CharityScoreCountsRepository extends JpaRepository<CharityScoreCount, String> {
+
+    /**
+     * Total score of a charity.
+     */
+    public interface CharityTotal {
+        String getCharity();
+        long getTotalScore();
+    }
+
+    /**
+     * Gets the total score of every charity (including charities nobody voted on).
+     */
+    @Query(value = """
+        SELECT c.orgId AS charity, COALESCE(s.totalScore, 0) AS totalScore
+            FROM Charities c
+            LEFT JOIN CharityScoreCounts s
+                ON (s.charity=c.orgId)
+        """, nativeQuery = true)
+    public List<CharityTotal> findAllTotals();
+
+    /**
+     * Add to the vote counts of a charity.
+     * @param charity Charity that was voted on.
+     * @param positive Change in the number of up votes.
+     * @param negative Change in the number of down votes.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO CharityScoreCounts(charity, positiveScore, negativeScore)
+            VALUES (:charity, :positive, :negative)
+        ON CONFLICT (charity) DO UPDATE SET
+            positiveScore = CharityScoreCounts.positiveScore + EXCLUDED.positiveScore,
+            negativeScore = CharityScoreCounts.negativeScore + EXCLUDED.negativeScore
+        """, nativeQuery = true)
+    public void addScores(@Param("charity") String charity, @Param("positive") long positive, @Param("negative") long negative);
+
+    /**
+     * Creates zero counts for the charities that have none yet.
+     * @return Number of charities whose counts were created.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO CharityScoreCounts(charity)
+            SELECT orgId FROM Charities
+        ON CONFLICT (charity) DO NOTHING
+        """, nativeQuery = true)
+    public int createMissing();
+
+    /**
+     * Locks the counts of the next charities (in the order of their names), until the end of the transaction.
+     * Votes write their counts while holding the same lock, so once it is taken every vote counted is committed.
+     * @param after Name of the last charity of the previous batch, or "" for the first batch.
+     * @param count Maximum number of charities to lock.
+     * @return Names of the charities locked.
+     */
+    @Query(value = """
+        SELECT charity FROM CharityScoreCounts
+            WHERE charity > :after
+            ORDER BY charity
+            LIMIT :count
+            FOR UPDATE
+        """, nativeQuery = true)
+    public List<String> lockBatch(@Param("after") String after, @Param("count") int count);
+
+    /**
+     * Recount the votes of charities whose counts are locked (@see{#lockBatch}), and correct the counts that have drifted.
+     * @param charities The locked charities.
+     * @return Number of charities whose counts were corrected.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE CharityScoreCounts c SET
+            positiveScore = s.positiveScore,
+            negativeScore = s.negativeScore
+        FROM (SELECT sc.charity,
+                    COUNT(v.vote) FILTER (WHERE v.vote) AS positiveScore,
+                    COUNT(v.vote) FILTER (WHERE NOT v.vote) AS negativeScore
+                FROM CharityScoreCounts sc
+                LEFT JOIN CharityScores v
+                    ON (v.charity=sc.charity)
+                WHERE sc.charity IN (:charities)
+                GROUP BY sc.charity) s
+        WHERE c.charity=s.charity
+            AND (c.positiveScore <> s.positiveScore OR c.negativeScore <> s.negativeScore)
+        """, nativeQuery = true)
+    public int reconcile(@Param("charities") List<String> charities);
+}
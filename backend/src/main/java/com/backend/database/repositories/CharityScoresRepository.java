@@ -3,7 +3,12 @@ package com.backend.database.repositories;
 import com.backend.database.entities.*;
 import com.backend.database.entities.keys.*;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository for the Like table.
@@ -13,4 +18,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
  */
 public interface CharityScoresRepository extends JpaRepository<CharityVote, CharityVoteKey> {
 
+    /**
+     * Gets the votes of a user on several charities.
+     * @param user User that voted.
+     * @param charities Charities to get the votes on.
+     * @return The votes (charities the user did not vote on are left out).
+     */
+    @Query("SELECT v FROM CharityVote v WHERE v.user = :user AND v.charity IN :charities")
+    public List<CharityVote> findVotes(@Param("user") String user, @Param("charities") Collection<String> charities);
 }
@@ -0,0 +1,44 @@
+package com.backend.database.repositories;
+
+import com.backend.database.entities.*;
+import com.backend.database.entities.keys.*;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository for the CommentScores table.
+ * @author JaarmaCo
+ * @version 1.0
+ * @since 2025-10-16
+ */
+public interface CommentScoresRepository extends JpaRepository<CommentScore, CommentScoreKey> {
+
+    /**
+     * Sets the vote of a user on a comment, without reading it first.
+     * @return 1 if the vote was inserted or changed, 0 if the user had already voted so.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO CommentScores(comment, charity, scoreUser, upDown)
+            VALUES (:comment, :charity, :user, :up)
+        ON CONFLICT (comment, charity, scoreUser) DO UPDATE SET
+            upDown = EXCLUDED.upDown
+        WHERE CommentScores.upDown IS DISTINCT FROM EXCLUDED.upDown
+        """, nativeQuery = true)
+    public int upsertVote(@Param("comment") int comment, @Param("charity") String charity,
+        @Param("user") String user, @Param("up") boolean up);
+
+    /**
+     * Removes the vote of a user on a comment.
+     * @return 1 if the vote was removed, 0 if the user had not voted.
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM CommentScores
+            WHERE comment = :comment AND charity = :charity AND scoreUser = :user
+        """, nativeQuery = true)
+    public int removeVote(@Param("comment") int comment, @Param("charity") String charity, @Param("user") String user);
+}
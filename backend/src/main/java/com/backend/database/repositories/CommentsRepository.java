@@ -3,11 +3,15 @@ package com.backend.database.repositories;
 import com.backend.database.entities.*;
 import com.backend.database.entities.keys.*;
 
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository representing the Comments table.
@@ -19,4 +23,102 @@ public interface CommentsRepository extends JpaRepository<Comment, CommentKey> {
 
     @Query("SELECT c FROM Comment c WHERE c.commentUser=:user")
     public List<Comment> findAllByUser(@Param("user") String user);
+
+    /**
+     * Inserts a new comment, without first looking for an existing one (unlike save).
+     * @return 1 if the comment was inserted.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO Comments(commentId, charity, comment, commentUser, insertTime)
+            VALUES (:commentId, :charity, CAST(:comment AS JSONB), :user, :insertTime)
+        """, nativeQuery = true)
+    public int insert(@Param("commentId") int commentId, @Param("charity") String charity,
+        @Param("comment") String comment, @Param("user") String user, @Param("insertTime") Timestamp insertTime);
+
+    /**
+     * Add to the vote counts of a comment.
+     * @param commentId Comment that was voted on.
+     * @param charity Charity that was commented on.
+     * @param positive Change in the number of up votes.
+     * @param negative Change in the number of down votes.
+     * @return 1 if the comment exists.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE Comments SET
+            positiveScore = positiveScore + :positive,
+            negativeScore = negativeScore + :negative
+        WHERE commentId = :commentId AND charity = :charity
+        """, nativeQuery = true)
+    public int addScores(@Param("commentId") int commentId, @Param("charity") String charity,
+        @Param("positive") long positive, @Param("negative") long negative);
+
+    /**
+     * Key of a comment locked by @see{#lockBatch}.
+     */
+    public interface CommentRef {
+        int getCommentId();
+        String getCharity();
+    }
+
+    /**
+     * Locks a comment until the end of the transaction. Votes on the comment take the lock before they
+     * read the vote they replace, so that they wait for each other and for recounts of the comment.
+     * @return The identifier of the comment, or Optional.empty() if it does not exist.
+     */
+    @Query(value = """
+        SELECT commentId FROM Comments
+            WHERE commentId = :commentId AND charity = :charity
+            FOR UPDATE
+        """, nativeQuery = true)
+    public Optional<Integer> lock(@Param("commentId") int commentId, @Param("charity") String charity);
+
+    /**
+     * Locks the next comments (in the order of their key), until the end of the transaction.
+     * @param commentId Identifier of the last comment of the previous batch.
+     * @param charity Charity of the last comment of the previous batch ("" and any identifier below every
+     * comment for the first batch).
+     * @param count Maximum number of comments to lock.
+     * @return Keys of the comments locked, in order.
+     */
+    @Query(value = """
+        SELECT commentId, charity FROM Comments
+            WHERE (commentId, charity) > (:commentId, :charity)
+            ORDER BY commentId, charity
+            LIMIT :count
+            FOR UPDATE
+        """, nativeQuery = true)
+    public List<CommentRef> lockBatch(@Param("commentId") int commentId, @Param("charity") String charity,
+        @Param("count") int count);
+
+    /**
+     * Recount the votes of the comments locked by one batch (@see{#lockBatch}), and correct the counts
+     * that have drifted.
+     * @param afterId Identifier of the last comment before the batch.
+     * @param afterCharity Charity of the last comment before the batch.
+     * @param lastId Identifier of the last comment of the batch.
+     * @param lastCharity Charity of the last comment of the batch.
+     * @return Number of comments whose counts were corrected.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE Comments c SET
+            positiveScore = s.positiveScore,
+            negativeScore = s.negativeScore
+        FROM (SELECT c.commentId, c.charity,
+                    COUNT(v.upDown) FILTER (WHERE v.upDown) AS positiveScore,
+                    COUNT(v.upDown) FILTER (WHERE NOT v.upDown) AS negativeScore
+                FROM Comments c
+                LEFT JOIN CommentScores v
+                    ON (v.comment=c.commentId AND v.charity=c.charity)
+                WHERE (c.commentId, c.charity) > (:afterId, :afterCharity)
+                    AND (c.commentId, c.charity) <= (:lastId, :lastCharity)
+                GROUP BY c.commentId, c.charity) s
+        WHERE c.commentId=s.commentId AND c.charity=s.charity
+            AND (c.positiveScore <> s.positiveScore OR c.negativeScore <> s.negativeScore)
+        """, nativeQuery = true)
+    public int reconcile(@Param("afterId") int afterId, @Param("afterCharity") String afterCharity,
+        @Param("lastId") int lastId, @Param("lastCharity") String lastCharity);
 }
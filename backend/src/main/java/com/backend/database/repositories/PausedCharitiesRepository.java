@@ -3,6 +3,9 @@ package com.backend.database.repositories;
 import com.backend.database.entities.*;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 /**
  * Repository into the DB table signifying carities that are temporarily disabled.
@@ -12,4 +15,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
  */
 public interface PausedCharitiesRepository extends JpaRepository<PausedCharity, String> {
 
+    /**
+     * Returns the organization IDs of all paused charities.
+     */
+    @Query("SELECT p.orgId FROM PausedCharity p")
+    public List<String> findAllIds();
 }
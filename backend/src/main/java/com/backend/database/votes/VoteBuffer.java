@@ -0,0 +1,269 @@
+package com.backend.database.votes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Votes that are accepted, but not yet written to the database.
+ * <p>
+ * Every vote is turned into a @see{VoteWrite} holding the change it makes to the vote counts of the
+ * charity, and placed in a bounded queue that is drained by a single writer. Until the write is
+ * completed, the vote is also kept as the pending vote of the user, so that the user reads their own
+ * vote (and the counts include it) before it reaches the database.
+ * <p>
+ * Votes of the same user on the same charity are serialized by a striped lock, so the change of each
+ * vote is computed against the vote before it. The stored vote is read before the lock is taken, and
+ * read again if a write of the same stripe completed meanwhile. Votes on one charity by different users
+ * only share the update of its pending counts, which are dropped once every change is written.
+ * @author JaarmaCo
+ * @since 2025-10-11
+ * @version 1.0
+ */
+public class VoteBuffer {
+
+    /**
+     * Identity of a vote.
+     */
+    public record Key(String user, String charity) {}
+
+    /**
+     * Change in the vote counts of a charity.
+     */
+    public record Delta(long positive, long negative) {
+
+        public static final Delta NONE = new Delta(0, 0);
+
+        /**
+         * Gets the change made by replacing a vote.
+         * @param previous Previous vote, or Optional.empty() if there was none.
+         * @param next New vote, or Optional.empty() if the vote is removed.
+         */
+        public static Delta between(Optional<Boolean> previous, Optional<Boolean> next) {
+            return new Delta(count(next, true) - count(previous, true),
+                count(next, false) - count(previous, false));
+        }
+
+        private static long count(Optional<Boolean> vote, boolean value) {
+            return vote.isPresent() && vote.get() == value ? 1 : 0;
+        }
+
+        public Delta plus(Delta other) {
+            return new Delta(positive + other.positive, negative + other.negative);
+        }
+
+        public boolean isNone() {
+            return 0 == positive && 0 == negative;
+        }
+    }
+
+    /**
+     * Outcome of offering a vote.
+     */
+    public enum Result {
+        /**
+         * The vote will be written.
+         */
+        ACCEPTED,
+        /**
+         * The vote equals the current vote of the user, nothing has to be written.
+         */
+        UNCHANGED,
+        /**
+         * The queue is full, the vote was dropped.
+         */
+        DROPPED,
+        /**
+         * The vote was rejected before being offered (e.g. the charity does not exist).
+         */
+        INVALID
+    }
+
+    /**
+     * A vote waiting to be written.
+     * @param key User and charity of the vote.
+     * @param vote New value of the vote, or Optional.empty() if the vote is removed.
+     * @param delta Change in the vote counts of the charity.
+     */
+    public record VoteWrite(Key key, Optional<Boolean> vote, Delta delta) {}
+
+    private final Object[] stripes;
+    private final AtomicLongArray completions;
+    private final BlockingQueue<VoteWrite> queue;
+    private final Map<Key, VoteWrite> pending = new ConcurrentHashMap<>();
+    private final Map<String, Delta> counts = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private volatile long lastFlushNanos = 0;
+
+    /**
+     * Create a new buffer.
+     * @param capacity Most votes waiting to be written, further votes are rejected.
+     * @param stripes Number of locks votes are striped over (rounded up to a power of two).
+     */
+    public VoteBuffer(int capacity, int stripes) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive.");
+        if (stripes < 1)
+            throw new IllegalArgumentException("Stripe count must be positive.");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        int count = 1;
+        while (count < stripes)
+            count <<= 1;
+        this.stripes = new Object[count];
+        this.completions = new AtomicLongArray(count);
+        for (int i = 0; i < this.stripes.length; ++i)
+            this.stripes[i] = new Object();
+    }
+
+    private int stripe(Key key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    /**
+     * Adds pending changes, dropping the counts of a charity (by returning null) once nothing is pending.
+     */
+    private static Delta sum(Delta a, Delta b) {
+        Delta sum = a.plus(b);
+        return sum.isNone() ? null : sum;
+    }
+
+    /**
+     * Accepts a vote.
+     * @param user User that votes.
+     * @param charity Charity that is voted on.
+     * @param vote New value of the vote, or Optional.empty() to remove it.
+     * @param stored Reads the stored vote of the user, only called if the user has no pending vote.
+     * @return Whether the vote was accepted.
+     */
+    public Result offer(String user, String charity, Optional<Boolean> vote, Supplier<Optional<Boolean>> stored) {
+        assert null != user;
+        assert null != charity;
+        assert null != vote;
+        Key key = new Key(user, charity);
+        int stripe = stripe(key);
+        while (true) {
+            // Read the stored vote without holding the lock. A write of the stripe that completes
+            // before the lock is taken may not be in what was read, so then it is read again.
+            long completed = completions.get(stripe);
+            Optional<Boolean> storedVote = pending.containsKey(key) ? null : stored.get();
+            synchronized (stripes[stripe]) {
+                VoteWrite previous = pending.get(key);
+                if (null == previous && (null == storedVote || completions.get(stripe) != completed))
+                    continue;
+                Optional<Boolean> previousVote = null != previous ? previous.vote() : storedVote;
+                if (previousVote.equals(vote))
+                    return Result.UNCHANGED;
+                VoteWrite write = new VoteWrite(key, vote, Delta.between(previousVote, vote));
+                if (!queue.offer(write)) {
+                    dropped.increment();
+                    return Result.DROPPED;
+                }
+                pending.put(key, write);
+                counts.merge(charity, write.delta(), VoteBuffer::sum);
+                accepted.increment();
+                return Result.ACCEPTED;
+            }
+        }
+    }
+
+    /**
+     * Gets the vote of a user that is not yet written.
+     * @return The pending write, or Optional.empty() if the stored vote is current.
+     */
+    public Optional<VoteWrite> getPending(String user, String charity) {
+        return Optional.ofNullable(pending.get(new Key(user, charity)));
+    }
+
+    /**
+     * Gets the change in the vote counts of a charity that is not yet written.
+     */
+    public Delta getPendingDelta(String charity) {
+        return counts.getOrDefault(charity, Delta.NONE);
+    }
+
+    /**
+     * Takes the oldest votes from the queue, to be written.
+     * Every write taken must be passed to @see{#complete} once written (or failed).
+     * @param max Most votes to take.
+     * @return The votes, oldest first.
+     */
+    public List<VoteWrite> drain(int max) {
+        List<VoteWrite> writes = new ArrayList<>(Math.min(max, queue.size()));
+        queue.drainTo(writes, max);
+        return writes;
+    }
+
+    /**
+     * Completes writes taken from the queue. Their votes stop being pending (unless the user voted again).
+     * @param writes Writes returned by @see{#drain}.
+     * @param success True if the writes were committed, false if they were lost.
+     * @param nanos Time spent writing.
+     */
+    public void complete(List<VoteWrite> writes, boolean success, long nanos) {
+        for (VoteWrite write : writes) {
+            // Counted before the vote stops being pending, see offer().
+            completions.incrementAndGet(stripe(write.key()));
+            pending.remove(write.key(), write);
+            counts.merge(write.key().charity(), new Delta(-write.delta().positive(), -write.delta().negative()),
+                VoteBuffer::sum);
+        }
+        (success ? written : dropped).add(writes.size());
+        flushes.increment();
+        flushNanos.add(nanos);
+        lastFlushNanos = nanos;
+    }
+
+    /**
+     * Number of votes waiting in the queue.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * Number of votes rejected because the queue was full, or lost because their write failed.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets runtime statistics of the buffer.
+     */
+    public JsonNode toJson() {
+        long count = flushes.sum();
+        return JsonNodeFactory.instance.objectNode()
+            .put("queueDepth", getQueueDepth())
+            .put("queueCapacity", getQueueDepth() + queue.remainingCapacity())
+            .put("accepted", getAccepted())
+            .put("written", getWritten())
+            .put("dropped", getDropped())
+            .put("flushes", count)
+            .put("lastFlushMillis", lastFlushNanos / 1e6)
+            .put("averageFlushMillis", 0 == count ? 0 : flushNanos.sum() / 1e6 / count);
+    }
+}
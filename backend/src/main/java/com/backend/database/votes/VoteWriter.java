@@ -0,0 +1,397 @@
+package com.backend.database.votes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.ApplicationProperties;
+import com.backend.database.entities.keys.CharityVoteKey;
+import com.backend.database.entities.CharityVote;
+import com.backend.database.repositories.CharityRepository;
+import com.backend.database.repositories.CharityScoreCountsRepository;
+import com.backend.database.repositories.CharityScoresRepository;
+import com.backend.database.votes.VoteBuffer.Delta;
+import com.backend.database.votes.VoteBuffer.Key;
+import com.backend.database.votes.VoteBuffer.VoteWrite;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes votes behind the requests that made them.
+ * <p>
+ * Votes are accepted into a @see{VoteBuffer}, and flushed to CharityScores on a short interval: one
+ * batched upsert for the votes that are set, one batched delete for the votes that are removed, and one
+ * update of CharityScoreCounts per charity, all in one transaction. Only the last vote of a user on a
+ * charity within a flush is written. A @see{VotesWritten} event is published after every committed batch.
+ * <p>
+ * Votes still in the buffer are lost if the application stops abruptly. The periodic recount of
+ * CharityScoreCounts repairs counts left behind by lost votes.
+ * <p>
+ * Pending votes are only visible to the instance that accepted them. Deployments with several instances
+ * should turn write-behind off (benesphere.votes.write-behind), so that votes are written by the request
+ * that makes them, with one upsert that reports whether the vote changed.
+ * @author JaarmaCo
+ * @since 2025-10-11
+ * @version 1.0
+ */
+@Component
+public class VoteWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteWriter.class);
+
+    private static final String UPSERT = """
+        INSERT INTO CharityScores(ratingUser, charity, vote)
+            VALUES (?, ?, ?)
+        ON CONFLICT (ratingUser, charity) DO UPDATE SET
+            vote = EXCLUDED.vote
+        WHERE CharityScores.vote IS DISTINCT FROM EXCLUDED.vote
+        """;
+
+    private static final String DELETE = "DELETE FROM CharityScores WHERE ratingUser = ? AND charity = ?";
+
+    @Autowired
+    private ApplicationProperties properties;
+
+    @Autowired
+    private CharityRepository charityRepository;
+
+    @Autowired
+    private CharityScoresRepository scoresRepository;
+
+    @Autowired
+    private CharityScoreCountsRepository scoreCountsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    private VoteBuffer buffer;
+
+    // Held (shared) from writing a batch of votes until its event is handled, see whileNotWriting.
+    private final ReadWriteLock writing = new ReentrantReadWriteLock();
+
+    // Batch that failed on a transient error, written again before any newer vote.
+    private List<VoteWrite> failed = List.of();
+    private int attempts;
+    private long retryAt;
+
+    @PostConstruct
+    public void init() {
+        ApplicationProperties.VoteProperties votes = properties.getVotes();
+        buffer = new VoteBuffer(votes.getQueueCapacity(), votes.getStripes());
+    }
+
+    /**
+     * Accepts a vote, to be written on the next flush.
+     * @param user User that votes.
+     * @param charity Charity that is voted on.
+     * @param vote New value of the vote, or Optional.empty() to remove it.
+     * @return Whether the vote was accepted (INVALID if it was written through, and the charity does not exist).
+     */
+    public VoteBuffer.Result vote(String user, String charity, Optional<Boolean> vote) {
+        if (!properties.getVotes().isWriteBehind()) {
+            try {
+                return writeThrough(user, List.of(Map.entry(charity, vote))).get(0);
+            } catch (DataIntegrityViolationException ex) {
+                // The charity does not exist.
+                return VoteBuffer.Result.INVALID;
+            }
+        }
+        return buffer.offer(user, charity, vote, () -> stored(user, charity));
+    }
+
+    /**
+     * Accepts several votes of one user, to be written on the next flush. The stored votes of the user
+     * are read with one query.
+     * @param user User that votes.
+     * @param votes New value of the vote on every charity, or Optional.empty() to remove it, in order.
+     * @return Whether each vote was accepted, in order.
+     */
+    public List<VoteBuffer.Result> voteAll(String user, List<Map.Entry<String, Optional<Boolean>>> votes) {
+        assert null != user;
+        assert null != votes;
+        if (!properties.getVotes().isWriteBehind())
+            return writeThrough(user, votes);
+        Map<String, Boolean> stored = new HashMap<>();
+        scoresRepository.findVotes(user, votes.stream().map(Map.Entry::getKey).distinct().toList())
+            .forEach(v -> stored.put(v.getCharity(), v.votedUp()));
+        return votes.stream()
+            .map(v -> buffer.offer(user, v.getKey(), v.getValue(),
+                () -> Optional.ofNullable(stored.get(v.getKey()))))
+            .toList();
+    }
+
+    /**
+     * Writes votes of one user in one transaction, along with the change of the vote counts.
+     */
+    private List<VoteBuffer.Result> writeThrough(String user, List<Map.Entry<String, Optional<Boolean>>> votes) {
+        List<VoteWrite> writes = new ArrayList<>();
+        // Counts are updated in the order of their charity, as the recount locks them (see @see{#write}).
+        Map<String, Delta> deltas = new TreeMap<>();
+        writing.readLock().lock();
+        try {
+            List<VoteBuffer.Result> results = new TransactionTemplate(transactionManager).execute(status -> {
+                List<VoteBuffer.Result> written = new ArrayList<>(votes.size());
+                for (Map.Entry<String, Optional<Boolean>> vote : votes) {
+                    String charity = vote.getKey();
+                    Delta delta = writeVote(user, charity, vote.getValue());
+                    if (null == delta) {
+                        written.add(VoteBuffer.Result.UNCHANGED);
+                        continue;
+                    }
+                    writes.add(new VoteWrite(new Key(user, charity), vote.getValue(), delta));
+                    deltas.merge(charity, delta, Delta::plus);
+                    written.add(VoteBuffer.Result.ACCEPTED);
+                }
+                deltas.forEach((charity, delta) -> {
+                    if (!delta.isNone())
+                        scoreCountsRepository.addScores(charity, delta.positive(), delta.negative());
+                });
+                return written;
+            });
+            if (!writes.isEmpty())
+                events.publishEvent(new VotesWritten(writes, deltas));
+            return results;
+        } finally {
+            writing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes one vote. The change of the vote counts is derived from the row the statement replaced
+     * (and locked), not from an earlier read, so that concurrent votes of the user are counted once.
+     * @return The change of the vote counts, or null if the user had already voted so.
+     */
+    private Delta writeVote(String user, String charity, Optional<Boolean> vote) {
+        if (vote.isEmpty()) {
+            List<Boolean> removed = jdbcTemplate.queryForList(DELETE + " RETURNING vote", Boolean.class, user, charity);
+            return removed.isEmpty() ? null : Delta.between(Optional.of(removed.get(0)), vote);
+        }
+        // xmax is 0 for an inserted row, an updated row held the opposite vote.
+        List<Boolean> inserted = jdbcTemplate.queryForList(UPSERT + "RETURNING xmax = 0", Boolean.class,
+            user, charity, vote.get());
+        if (inserted.isEmpty())
+            return null;
+        return Delta.between(inserted.get(0) ? Optional.empty() : Optional.of(!vote.get()), vote);
+    }
+
+    private Optional<Boolean> stored(String user, String charity) {
+        return scoresRepository.findById(new CharityVoteKey(user, charity)).map(CharityVote::votedUp);
+    }
+
+    /**
+     * Gets the vote of a user on a charity, including votes not yet written.
+     * @return The vote, or Optional.empty() if the user has not voted.
+     */
+    public Optional<Boolean> getVote(String user, String charity) {
+        Optional<VoteWrite> pending = buffer.getPending(user, charity);
+        if (pending.isPresent())
+            return pending.get().vote();
+        return stored(user, charity);
+    }
+
+    /**
+     * Gets the change in the vote counts of a charity that is not yet written.
+     */
+    public Delta getPendingDelta(String charity) {
+        return buffer.getPendingDelta(charity);
+    }
+
+    /**
+     * Gets the buffer of votes waiting to be written.
+     */
+    public VoteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Writes every vote waiting in the buffer.
+     * <p>
+     * A batch that failed on a transient error stays pending, and is written again once its backoff has
+     * passed. Newer votes are not drained until it is written, so that they are not overwritten by it.
+     */
+    @Scheduled(fixedDelayString = "${benesphere.votes.flush-interval:PT0.2S}")
+    public synchronized void flush() {
+        List<VoteWrite> writes;
+        while (!(writes = next()).isEmpty()) {
+            writing.readLock().lock();
+            try {
+                VotesWritten written = writeBatch(writes);
+                if (null == written)
+                    return;
+                try {
+                    events.publishEvent(written);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to handle written votes: {}", ex.getMessage());
+                }
+            } finally {
+                writing.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Reads vote counts while no votes are being written. Every batch of votes is then either committed
+     * before the read, and its @see{VotesWritten} event already handled, or committed after the read,
+     * and its event handled after this returns.
+     * <p>
+     * Votes wait for the read to end, so it should be short.
+     * @param read Reads the counts.
+     * @return The result of the read.
+     */
+    public <T> T whileNotWriting(Supplier<T> read) {
+        writing.writeLock().lock();
+        try {
+            return read.get();
+        } finally {
+            writing.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the batch to write next: the failed batch if there is one, else votes drained from the buffer.
+     * @return The batch, or an empty list if there is none, or the failed batch has to wait.
+     */
+    private List<VoteWrite> next() {
+        if (failed.isEmpty())
+            return buffer.drain(properties.getVotes().getBatchSize());
+        if (System.nanoTime() - retryAt < 0)
+            return List.of();
+        List<VoteWrite> writes = failed;
+        failed = List.of();
+        return writes;
+    }
+
+    /**
+     * Writes votes taken from the buffer, and completes them.
+     * <p>
+     * Votes are accepted without checking that the charity exists, so a vote on a missing charity fails
+     * the batch (on its foreign key). The charities of the batch are then looked up, and the votes on
+     * charities that exist are written again without the others.
+     * <p>
+     * A batch that fails on a transient error (a deadlock, a lost connection) is kept to be written again
+     * (see @see{#flush}), and only dropped once it failed benesphere.votes.max-retries more times.
+     * @return The votes written, or null if the batch failed.
+     */
+    private VotesWritten writeBatch(List<VoteWrite> writes) {
+        long start = System.nanoTime();
+        Map<Boolean, List<VoteWrite>> byExisting;
+        try {
+            try {
+                VotesWritten written = write(writes);
+                attempts = 0;
+                buffer.complete(writes, true, System.nanoTime() - start);
+                return written;
+            } catch (DataIntegrityViolationException ex) {
+                Set<String> existing = new HashSet<>();
+                charityRepository.findAllById(writes.stream().map(w -> w.key().charity()).distinct().toList())
+                    .forEach(c -> existing.add(c.getOrgID()));
+                byExisting = writes.stream().collect(Collectors.partitioningBy(w -> existing.contains(w.key().charity())));
+                if (byExisting.get(false).isEmpty())
+                    throw ex;
+            }
+        } catch (RuntimeException ex) {
+            ApplicationProperties.VoteProperties votes = properties.getVotes();
+            if (isTransient(ex) && attempts < votes.getMaxRetries()) {
+                long backoff = votes.getRetryBackoff().toNanos() << Math.min(attempts, 16);
+                attempts++;
+                log.warn("Failed to write {} votes, retry {} of {}: {}", writes.size(), attempts, votes.getMaxRetries(),
+                    ex.getMessage());
+                failed = writes;
+                retryAt = System.nanoTime() + backoff;
+                return null;
+            }
+            log.error("Failed to write {} votes: {}", writes.size(), ex.getMessage());
+            attempts = 0;
+            buffer.complete(writes, false, System.nanoTime() - start);
+            return null;
+        }
+        attempts = 0;
+        log.warn("Dropped {} votes on charities that do not exist.", byExisting.get(false).size());
+        buffer.complete(byExisting.get(false), false, System.nanoTime() - start);
+        List<VoteWrite> remaining = byExisting.get(true);
+        return remaining.isEmpty() ? new VotesWritten(List.of(), Map.of()) : writeBatch(remaining);
+    }
+
+    /**
+     * Whether a failed write may succeed when it is tried again.
+     */
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+            || ex instanceof RecoverableDataAccessException
+            || ex instanceof DataAccessResourceFailureException
+            || ex instanceof TransactionException;
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Writes a batch of votes in one transaction.
+     * <p>
+     * The rows of CharityScoreCounts are updated in the order of their charity, the order in which the
+     * recount (see @see{ScoreCountReconciler}) locks them, so that the two can not deadlock.
+     */
+    private VotesWritten write(List<VoteWrite> writes) {
+        Map<Key, VoteWrite> last = new LinkedHashMap<>();
+        Map<String, Delta> deltas = new TreeMap<>();
+        for (VoteWrite write : writes) {
+            last.put(write.key(), write);
+            deltas.merge(write.key().charity(), write.delta(), Delta::plus);
+        }
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (VoteWrite write : last.values()) {
+            if (write.vote().isPresent())
+                upserts.add(new Object[] { write.key().user(), write.key().charity(), write.vote().get() });
+            else
+                deletes.add(new Object[] { write.key().user(), write.key().charity() });
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!upserts.isEmpty())
+                jdbcTemplate.batchUpdate(UPSERT, upserts);
+            if (!deletes.isEmpty())
+                jdbcTemplate.batchUpdate(DELETE, deletes);
+            deltas.forEach((charity, delta) -> {
+                if (!delta.isNone())
+                    scoreCountsRepository.addScores(charity, delta.positive(), delta.negative());
+            });
+        });
+        return new VotesWritten(writes, deltas);
+    }
+}
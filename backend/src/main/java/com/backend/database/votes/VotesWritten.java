@@ -0,0 +1,17 @@
+package com.backend.database.votes;
+
+import java.util.List;
+import java.util.Map;
+
+import com.backend.database.votes.VoteBuffer.Delta;
+import com.backend.database.votes.VoteBuffer.VoteWrite;
+
+/**
+ * Published by @see{VoteWriter} after a batch of votes was committed.
+ * @param writes The votes written, oldest first.
+ * @param deltas Change in the vote counts of every charity voted on.
+ * @author JaarmaCo
+ * @since 2025-10-12
+ * @version 1.0
+ */
+public record VotesWritten(List<VoteWrite> writes, Map<String, Delta> deltas) {}
@@ -38,6 +38,13 @@ INSERT INTO CharityInfo VALUES
     ('1097940', 'Action for children', 'https://www.actionforchildren.org/', 'action-for-children.txt', 'action-for-children.png'),
     ('1136547', 'The Big Give', 'https://www.thebiggivesa.org/', 'the-big-give.txt', 'the-big-give.png');
 
+UPDATE CharityInfo SET descriptionText = 'Cancer research charity funding scientists, doctors and nurses to beat cancer.'
+    WHERE charity = '1089464';
+UPDATE CharityInfo SET descriptionText = 'Protecting and supporting children and young people, and their families.'
+    WHERE charity = '1097940';
+UPDATE CharityInfo SET descriptionText = 'Match funding campaigns that double donations to charities.'
+    WHERE charity = '1136547';
+
 INSERT INTO CharityClassifications VALUES
     ('1089464', 'Medicine'),
     ('1089464', 'Humanitarian'),
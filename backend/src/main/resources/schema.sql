@@ -58,6 +58,26 @@ CREATE TABLE IF NOT EXISTS CharityScores(
     PRIMARY KEY(ratingUser, charity)
 );
 
+-- Vote counts per charity, kept in sync with CharityScores by the application (and reconciled
+-- at startup and periodically), so that reading scores never has to aggregate the votes.
+CREATE TABLE IF NOT EXISTS CharityScoreCounts(
+    charity TEXT
+        PRIMARY KEY
+        REFERENCES Charities(orgId)
+            ON DELETE CASCADE,
+    positiveScore BIGINT
+        NOT NULL
+        DEFAULT 0,
+    negativeScore BIGINT
+        NOT NULL
+        DEFAULT 0,
+    totalScore BIGINT
+        GENERATED ALWAYS AS (positiveScore - negativeScore) STORED
+);
+
+CREATE INDEX IF NOT EXISTS CharityScoreCountsTotal
+    ON CharityScoreCounts(totalScore, charity);
+
 CREATE TABLE IF NOT EXISTS Comments(
     commentId INT
         NOT NULL,
@@ -65,7 +85,7 @@ CREATE TABLE IF NOT EXISTS Comments(
         NOT NULL
         REFERENCES Charities(orgId)
             ON DELETE CASCADE,
-    comment JSON
+    comment JSONB
         NOT NULL,
     commentUser TEXT
         NOT NULL
@@ -75,9 +95,75 @@ CREATE TABLE IF NOT EXISTS Comments(
     insertTime TIMESTAMP
         NOT NULL
         DEFAULT CURRENT_TIMESTAMP,
+    positiveScore BIGINT
+        NOT NULL
+        DEFAULT 0,
+    negativeScore BIGINT
+        NOT NULL
+        DEFAULT 0,
+    score BIGINT
+        GENERATED ALWAYS AS (positiveScore - negativeScore) STORED,
     PRIMARY KEY(commentId, charity)
 );
 
+-- Vote counts of a comment, kept in sync with CommentScores by the application (and reconciled
+-- periodically) like CharityScoreCounts. Added to Comments created before the counts existed, and
+-- counted from the votes already cast (CommentScores exists in such databases) when they are added.
+-- The block is quoted with '' rather than $$, which the script runner does not recognize (it would
+-- split the block at its ;).
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = ''comments''
+                AND column_name = ''positivescore'') THEN
+        ALTER TABLE Comments ADD COLUMN positiveScore BIGINT NOT NULL DEFAULT 0;
+        ALTER TABLE Comments ADD COLUMN negativeScore BIGINT NOT NULL DEFAULT 0;
+        ALTER TABLE Comments ADD COLUMN score BIGINT GENERATED ALWAYS AS (positiveScore - negativeScore) STORED;
+        UPDATE Comments c SET
+                positiveScore = s.positiveScore,
+                negativeScore = s.negativeScore
+            FROM (SELECT v.comment, v.charity,
+                        COUNT(*) FILTER (WHERE v.upDown) AS positiveScore,
+                        COUNT(*) FILTER (WHERE NOT v.upDown) AS negativeScore
+                    FROM CommentScores v
+                    GROUP BY v.comment, v.charity) s
+            WHERE c.commentId=s.comment AND c.charity=s.charity;
+    END IF;
+END';
+
+-- Best comments first, overall and per charity.
+CREATE INDEX IF NOT EXISTS CommentsScore
+    ON Comments(score, charity, commentId);
+
+CREATE INDEX IF NOT EXISTS CommentsCharityScore
+    ON Comments(charity, score, commentId);
+
+-- Comments were stored as JSON before, convert existing tables once.
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = ''comments''
+                AND column_name = ''comment'' AND data_type <> ''jsonb'') THEN
+        ALTER TABLE Comments ALTER COLUMN comment TYPE JSONB USING comment::JSONB;
+    END IF;
+END';
+
+-- Newest comments of a charity first (the comment timeline). Comment ids break ties, in the same
+-- direction, so pages are a single index range scan.
+CREATE INDEX IF NOT EXISTS CommentsTimeline
+    ON Comments(charity, insertTime DESC, commentId DESC);
+
+-- Next comment id of each charity. Rows are created from MAX(commentId) on the first comment id
+-- reserved for a charity, and ids are reserved in blocks (see CommentIdAllocator).
+CREATE TABLE IF NOT EXISTS CommentIdCounters(
+    charity TEXT
+        PRIMARY KEY
+        REFERENCES Charities(orgId)
+            ON DELETE CASCADE,
+    nextId INT
+        NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS CommentScores(
     comment INT
         NOT NULL,
@@ -115,6 +201,20 @@ CREATE TABLE IF NOT EXISTS SearchedCharities(
     PRIMARY KEY(username, charity)
 );
 
+-- Checkpoint of the decayed trending scores kept in memory by the application.
+-- score is the value of the score at updateTime.
+CREATE TABLE IF NOT EXISTS TrendingScores(
+    charity TEXT
+        PRIMARY KEY
+        REFERENCES Charities(orgId)
+            ON DELETE CASCADE,
+    score DOUBLE PRECISION
+        NOT NULL,
+    updateTime TIMESTAMP
+        NOT NULL
+        DEFAULT CURRENT_TIMESTAMP
+);
+
 CREATE TABLE IF NOT EXISTS CommentBlame(
     comment INT
         NOT NULL,
@@ -171,33 +271,45 @@ CREATE TABLE IF NOT EXISTS CharityInfo(
     charityDescriptionFile TEXT
         NOT NULL,
     charityImageFile TEXT
+        NOT NULL,
+    descriptionText TEXT -- Text of charityDescriptionFile, ingested for searching.
         NOT NULL
+        DEFAULT '',
+    searchVector TSVECTOR
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('english', humanName), 'A') ||
+            setweight(to_tsvector('english', descriptionText), 'B')) STORED
 );
 
+-- Search columns of databases created before they were added.
+ALTER TABLE CharityInfo
+    ADD COLUMN IF NOT EXISTS descriptionText TEXT
+        NOT NULL
+        DEFAULT '';
+ALTER TABLE CharityInfo
+    ADD COLUMN IF NOT EXISTS searchVector TSVECTOR
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('english', humanName), 'A') ||
+            setweight(to_tsvector('english', descriptionText), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS CharityInfoSearch
+    ON CharityInfo USING GIN (searchVector);
+
 CREATE OR REPLACE VIEW CharityData AS SELECT
         ci.charity AS charity,
         humanName,
         homePageUrl,
         charityDescriptionFile,
         charityImageFile,
-        positiveScore,
-        negativeScore,
-        (positiveScore - negativeScore) AS totalScore
+        COALESCE(sc.positiveScore, 0) AS positiveScore,
+        COALESCE(sc.negativeScore, 0) AS negativeScore,
+        COALESCE(sc.totalScore, 0) AS totalScore,
+        searchVector
     FROM
-        (SELECT * FROM CharityInfo) ci
-    INNER JOIN
-        (SELECT COUNT(1) AS positiveScore, charity
-        FROM CharityScores
-            WHERE CharityScores.vote
-            GROUP BY charity) ps
-        ON (ci.charity=ps.charity)
-    INNER JOIN
-        (SELECT COUNT(1) AS negativeScore, charity
-        FROM CharityScores
-            WHERE NOT CharityScores.vote
-            GROUP BY charity) ns
-        ON (ci.charity=ps.charity);
-
-CREATE OR REPLACE VIEW NextCommendId(charity) AS SELECT MAX(commentId)+1
-    FROM Comments
-    WHERE Comments.charity=charity;
+        CharityInfo ci
+    LEFT JOIN
+        CharityScoreCounts sc
+        ON (sc.charity=ci.charity);
+
+-- Replaced by CommentIdCounters.
+DROP VIEW IF EXISTS NextCommendId;
@@ -30,6 +30,10 @@ GRANT SELECT, INSERT, DELETE, UPDATE
     ON TABLE public.CharityScores
     TO benesphere;
 
+GRANT SELECT, INSERT, UPDATE
+    ON TABLE public.CharityScoreCounts
+    TO benesphere;
+
 GRANT SELECT, INSERT, UPDATE
     ON TABLE public.Comments
     TO benesphere;
@@ -38,10 +42,18 @@ GRANT SELECT, INSERT, UPDATE, DELETE
     ON TABLE public.CommentScores
     TO benesphere;
 
-GRANT SELECT, INSERT
+GRANT SELECT, INSERT, UPDATE
+    ON TABLE public.CommentIdCounters
+    TO benesphere;
+
+GRANT SELECT, INSERT, UPDATE
     ON TABLE public.SearchedCharities
     TO benesphere;
 
+GRANT SELECT, INSERT, UPDATE, DELETE
+    ON TABLE public.TrendingScores
+    TO benesphere;
+
 GRANT SELECT, INSERT, UPDATE, DELETE
     ON TABLE public.CommentBlame
     TO benesphere;
@@ -49,3 +61,11 @@ GRANT SELECT, INSERT, UPDATE, DELETE
 GRANT SELECT, INSERT, UPDATE, DELETE
     ON TABLE public.CharityBlame
     TO benesphere;
+
+GRANT SELECT
+    ON TABLE public.CharityClasses
+    TO benesphere;
+
+GRANT SELECT
+    ON TABLE public.CharityClassifications
+    TO benesphere;
@@ -0,0 +1,72 @@
+package com.backend.tests.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.cache.ReadThroughCache;
+
+public class ReadThroughCacheTest {
+
+    @Test
+    public void testValuesExpireAndAreInvalidated() {
+        AtomicLong now = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ReadThroughCache<String, Integer> cache = new ReadThroughCache<>(2, Duration.ofNanos(10), now::get);
+
+        assertEquals(1, cache.get("a", k -> loads.incrementAndGet()));
+        assertEquals(1, cache.get("a", k -> loads.incrementAndGet()));
+        now.set(11);
+        assertEquals(2, cache.get("a", k -> loads.incrementAndGet()));
+        cache.invalidate("a");
+        assertEquals(3, cache.get("a", k -> loads.incrementAndGet()));
+
+        cache.get("b", k -> 0);
+        cache.get("c", k -> 0);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.getExpirations());
+        assertEquals(1, cache.getInvalidations());
+
+        assertThrows(IllegalStateException.class, () -> cache.get("d", k -> { throw new IllegalStateException(); }));
+        assertEquals(4, cache.get("d", k -> 4));
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneLoad() throws Exception {
+        ReadThroughCache<String, Integer> cache = new ReadThroughCache<>(8, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> first = executor.submit(() -> cache.get("a", k -> {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return loads.incrementAndGet();
+            }));
+            loading.await();
+            Future<Integer> second = executor.submit(() -> cache.get("a", k -> loads.incrementAndGet()));
+            release.countDown();
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.backend.tests.comments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.comments.CommentIdBlocks;
+
+public class CommentIdBlocksTest {
+
+    @Test
+    public void testIdsAreReservedInBlocks() {
+        Map<String, Integer> counters = new HashMap<>(Map.of("a", 1, "b", 10));
+        CommentIdBlocks blocks = new CommentIdBlocks(2, (charity, count) -> counters.merge(charity, count, Integer::sum));
+
+        assertEquals(1, blocks.next("a"));
+        assertEquals(10, blocks.next("b"));
+        assertEquals(2, blocks.next("a"));
+        assertEquals(3, blocks.next("a"));
+        assertEquals(5, counters.get("a"));
+        assertEquals(4, blocks.getAllocated());
+        assertEquals(3, blocks.getReserved());
+
+        // Ids of a forgotten block are skipped.
+        blocks.clear();
+        assertEquals(5, blocks.next("a"));
+    }
+
+    @Test
+    public void testFailedReservationIsRetried() {
+        int[] calls = { 0 };
+        CommentIdBlocks blocks = new CommentIdBlocks(4, (charity, count) -> {
+            if (++calls[0] == 1)
+                throw new IllegalStateException("Unknown charity.");
+            return 4;
+        });
+
+        assertThrows(IllegalStateException.class, () -> blocks.next("a"));
+        assertEquals(0, blocks.toJson().get("charities").asInt());
+        assertEquals(0, blocks.next("a"));
+        assertEquals(1, blocks.getReserved());
+    }
+}
@@ -0,0 +1,89 @@
+package com.backend.tests.comments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.comments.RecentComments;
+import com.backend.database.comments.RecentComments.Entry;
+import com.backend.database.comments.RecentComments.Load;
+import com.backend.database.filtering.ResultPage;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class RecentCommentsTest {
+
+    private static Entry entry(int id) {
+        return new Entry(String.format("{\"commentId\":%d}", id), Optional.empty(), new Timestamp(1000L * id), id);
+    }
+
+    private static List<String> ids(ResultPage<JsonNode> page) {
+        return page.results().stream().map(JsonNode::toString).toList();
+    }
+
+    @Test
+    public void testNewCommentsArePushed() {
+        RecentComments recent = new RecentComments(3, 1 << 20, Duration.ofMinutes(1), () -> 0);
+        int[] loads = { 0 };
+        ResultPage<JsonNode> page = recent.get("a", 3, () -> {
+            ++loads[0];
+            return new Load(List.of(entry(2), entry(1)), false);
+        });
+        assertEquals(List.of("{\"commentId\":2}", "{\"commentId\":1}"), ids(page));
+        assertTrue(page.next().isEmpty());
+
+        recent.add("a", entry(3));
+        recent.add("a", entry(4));
+        page = recent.get("a", 2, () -> { throw new AssertionError(); });
+        assertEquals(List.of("{\"commentId\":4}", "{\"commentId\":3}"), ids(page));
+        page = recent.get("a", 3, () -> { throw new AssertionError(); });
+        assertEquals(List.of("{\"commentId\":4}", "{\"commentId\":3}", "{\"commentId\":2}"), ids(page));
+        assertEquals(1, loads[0]);
+        assertEquals(1, recent.getMisses());
+        assertEquals(2, recent.getHits());
+
+        recent.invalidate("a");
+        recent.get("a", 1, () -> { ++loads[0]; return new Load(List.of(entry(4)), true); });
+        assertEquals(2, loads[0]);
+    }
+
+    @Test
+    public void testLeastRecentlyReadIsEvicted() {
+        Entry big = new Entry("x".repeat(1000), Optional.empty(), new Timestamp(0), 0);
+        RecentComments recent = new RecentComments(1, 5000, Duration.ofMinutes(1), () -> 0);
+        recent.get("a", 1, () -> new Load(List.of(big), false));
+        recent.get("b", 1, () -> new Load(List.of(big), false));
+        recent.get("a", 1, () -> { throw new AssertionError(); });
+        recent.get("c", 1, () -> new Load(List.of(big), false));
+        assertEquals(2, recent.getCharities());
+        assertEquals(1, recent.getEvictions());
+        recent.get("a", 1, () -> { throw new AssertionError(); });
+
+        // A comment added while the timeline loads outdates the load.
+        recent.get("d", 1, () -> {
+            recent.add("d", entry(2));
+            return new Load(List.of(entry(1)), false);
+        });
+        int misses = (int) recent.getMisses();
+        recent.get("d", 1, () -> new Load(List.of(entry(2)), true));
+        assertEquals(misses + 1, recent.getMisses());
+        assertTrue(recent.getBytes() <= 5000);
+    }
+
+    @Test
+    public void testCommentAddedOutOfOrderDropsTheCharity() {
+        RecentComments recent = new RecentComments(3, 1 << 20, Duration.ofMinutes(1), () -> 0);
+        recent.get("a", 3, () -> new Load(List.of(entry(2), entry(1)), false));
+        recent.add("a", entry(4));
+        // Added concurrently with 4, but older.
+        recent.add("a", entry(3));
+        ResultPage<JsonNode> page = recent.get("a", 3, () -> new Load(List.of(entry(4), entry(3), entry(2)), true));
+        assertEquals(List.of("{\"commentId\":4}", "{\"commentId\":3}", "{\"commentId\":2}"), ids(page));
+        assertEquals(2, recent.getMisses());
+    }
+}
@@ -0,0 +1,34 @@
+package com.backend.tests.filtering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.filtering.EntityField;
+
+public class EntityFieldTest {
+
+    private EntityField field(Class<?> type) {
+        return new EntityField("field", "field", type, false, null);
+    }
+
+    @Test
+    public void testNumbersAreCoerced() {
+        assertEquals(5, field(Integer.class).coerce(5L));
+        assertEquals(5L, field(Long.class).coerce("5"));
+        assertEquals(2.5, field(Double.class).coerce(2.5f));
+        assertThrows(IllegalArgumentException.class, () -> field(Integer.class).coerce(2.5));
+        assertThrows(IllegalArgumentException.class, () -> field(Integer.class).coerce("five"));
+    }
+
+    @Test
+    public void testTextAndTimestampsAreCoerced() {
+        assertEquals("5560008616", field(String.class).coerce(5560008616L));
+        assertEquals(new Timestamp(1000), field(Timestamp.class).coerce(1000));
+        assertEquals(new Timestamp(1000), field(Timestamp.class).coerce("1970-01-01T00:00:01Z"));
+        assertThrows(IllegalArgumentException.class, () -> field(Boolean.class).coerce("yes"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.backend.tests.filtering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.filtering.FacetCounts;
+import com.backend.database.filtering.FacetIndex;
+import com.backend.database.filtering.FacetRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class FacetCountsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final FacetIndex index = new FacetIndex.Builder()
+        .facet("paused")
+        .add("Medicine", "1")
+        .add("Humanitarian", "1")
+        .add("Humanitarian", "2")
+        .add("paused", "3")
+        .build();
+
+    private FacetRequest request(String text) throws Exception {
+        return FacetRequest.fromJson(mapper.readTree(text.replace('\'', '"')), index);
+    }
+
+    @Test
+    public void testRequestFromJson() throws Exception {
+        assertEquals(List.of("Humanitarian", "Medicine", "paused"), request("{'classes': true}").facets());
+        assertEquals(List.of("Medicine"), request("{'classes': ['Medicine', 'Medicine']}").facets());
+        assertThrows(IllegalArgumentException.class, () -> request("{'classes': ['Unknown']}"));
+        assertThrows(IllegalArgumentException.class, () -> request("{}"));
+        assertThrows(IllegalArgumentException.class, () -> request("{'histogram': {'field': 'totalScore', 'bounds': [10, 0]}}"));
+        assertThrows(IllegalArgumentException.class, () -> request("{'histogram': {'field': 'totalScore', 'bounds': []}}"));
+    }
+
+    @Test
+    public void testCounts() throws Exception {
+        FacetCounts counts = new FacetCounts(
+            request("{'classes': ['Humanitarian', 'paused'], 'histogram': {'field': 'totalScore', 'bounds': [0, 10]}}"), index);
+        counts.add("1", Optional.of(-1));
+        counts.add("2", Optional.of(0));
+        counts.add("3", Optional.of(10));
+        counts.add("4", Optional.of(25L));
+
+        assertEquals(4, counts.getTotal());
+        assertEquals(2, counts.count("Humanitarian"));
+        assertEquals(1, counts.count("paused"));
+        assertEquals(1, counts.count("Medicine"));
+        assertEquals(1, counts.bucket(0));
+        assertEquals(1, counts.bucket(1));
+        assertEquals(2, counts.bucket(2));
+
+        JsonNode json = counts.toJson(true);
+        assertEquals(2, json.get("classes").get(0).get("count").asInt());
+        assertEquals(3, json.get("histogram").size());
+        assertEquals(10.0, json.get("histogram").get(2).get("from").asDouble());
+        assertEquals(true, json.get("histogram").get(2).get("to").isNull());
+    }
+}
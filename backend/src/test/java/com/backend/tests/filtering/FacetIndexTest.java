@@ -0,0 +1,57 @@
+package com.backend.tests.filtering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.filtering.FacetIndex;
+
+public class FacetIndexTest {
+
+    private FacetIndex index() {
+        return new FacetIndex.Builder()
+            .facet("paused")
+            .facet("Equality")
+            .key("4")
+            .add("Medicine", "1")
+            .add("Humanitarian", "1")
+            .add("Humanitarian", "2")
+            .add("Humanitarian", "3")
+            .add("Medicine", "3")
+            .add("paused", "3")
+            .build();
+    }
+
+    @Test
+    public void testSelect() {
+        FacetIndex index = index();
+        assertEquals(4, index.size());
+        assertEquals(List.of("1", "3"), index.keysOf(index.select(List.of("Medicine", "Humanitarian"))));
+        assertEquals(List.of("1"), index.keysOf(index.select(List.of("Medicine", "Humanitarian", "!paused"))));
+        assertEquals(List.of("1", "2", "4"), index.keysOf(index.select(List.of("!paused"))));
+        assertEquals(List.of(), index.keysOf(index.select(List.of("Equality"))));
+        assertEquals(2, index.count("Medicine", index.select(List.of("Humanitarian"))));
+        assertThrows(IllegalArgumentException.class, () -> index.select(List.of("Unknown")));
+    }
+
+    @Test
+    public void testWith() {
+        FacetIndex index = index();
+        FacetIndex resumed = index.with("paused", "3", false);
+        assertTrue(index.contains("paused", "3"));
+        assertFalse(resumed.contains("paused", "3"));
+        assertSame(resumed, resumed.with("paused", "3", false));
+
+        FacetIndex added = resumed.with("paused", "5", true);
+        assertEquals(5, added.size());
+        assertEquals(List.of("5"), added.keysOf(added.select(List.of("paused"))));
+        assertEquals(List.of("1", "3"), added.keysOf(added.select(List.of("Medicine"))));
+        assertThrows(IllegalArgumentException.class, () -> index.with("Unknown", "1", true));
+    }
+}
@@ -0,0 +1,87 @@
+package com.backend.tests.filtering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.entities.Comment;
+import com.backend.database.filtering.FilterPlanCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class FilterOptimizerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private String plan(String text) throws Exception {
+        FilterPlanCache cache = new FilterPlanCache(16);
+        return cache.getPlan(Comment.class, mapper.readTree(text.replace('\'', '"'))).toString();
+    }
+
+    @Test
+    public void testNestedJunctionsAreFlattened() throws Exception {
+        assertEquals("commentId < ?0", plan("[{'filter': 'and', 'arguments': ["
+            + "{'filter': 'or', 'arguments': [{'filter': 'less', 'field': 'commentId', 'value': 5}]}]}]"));
+        assertEquals("AND (commentId < ?0, charity = ?1, commentUser = ?2)", plan("[{'filter': 'and', 'arguments': ["
+            + "{'filter': 'less', 'field': 'commentId', 'value': 5},"
+            + "{'filter': 'and', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+            + "{'filter': 'equals', 'field': 'commentUser', 'value': 'b'}]}]}]"));
+    }
+
+    @Test
+    public void testDuplicatesAreRemoved() throws Exception {
+        assertEquals("charity = ?0", plan("{'filter': 'and', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'}]}"));
+    }
+
+    @Test
+    public void testNotIsPushedDown() throws Exception {
+        assertEquals("AND (NOT (charity = ?0), NOT (commentUser = ?1))", plan("{'filter': 'not', 'arguments': ["
+            + "{'filter': 'or', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+            + "{'filter': 'equals', 'field': 'commentUser', 'value': 'b'}]}]}"));
+        assertEquals("charity = ?0", plan("{'filter': 'not', 'arguments': [{'filter': 'not', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'}]}]}"));
+    }
+
+    @Test
+    public void testConstantsAreFolded() throws Exception {
+        assertEquals("OR ()", plan("{'filter': 'and', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+            + "{'filter': 'or', 'arguments': []}]}"));
+        assertEquals("charity = ?0", plan("{'filter': 'and', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+            + "{'filter': 'and', 'arguments': []}]}"));
+        assertEquals("OR ()", plan("{'filter': 'and', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+            + "{'filter': 'not', 'arguments': [{'filter': 'equals', 'field': 'charity', 'value': 'a'}]}]}"));
+    }
+
+    @Test
+    public void testEqualsAreMergedIntoIn() throws Exception {
+        assertEquals("OR (charity IN ?0 ?2 ?3, commentId < ?1)", plan("{'filter': 'or', 'arguments': ["
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+            + "{'filter': 'less', 'field': 'commentId', 'value': 5},"
+            + "{'filter': 'equals', 'field': 'charity', 'value': 'b'},"
+            + "{'filter': 'in', 'field': 'charity', 'value': ['c', 'a']}]}"));
+    }
+
+    @Test
+    public void testRangesAreMergedIntoBetween() throws Exception {
+        assertEquals("commentId BETWEEN ?1 ?0", plan("[{'filter': 'less', 'field': 'commentId', 'value': 10},"
+            + "{'filter': 'greater', 'field': 'commentId', 'value': 2}]"));
+        assertThrows(IllegalArgumentException.class, () -> plan(
+            "{'filter': 'between', 'field': 'commentId', 'value': [1]}"));
+    }
+
+    @Test
+    public void testFacetsAreIntersected() throws Exception {
+        assertEquals("charity IN FACETS ?0 ?1 ?2", plan("{'filter': 'and', 'arguments': ["
+            + "{'filter': 'facet', 'field': 'charity', 'value': ['Medicine', 'Humanitarian']},"
+            + "{'filter': 'facet', 'field': 'charity', 'value': ['!paused']}]}"));
+        assertThrows(IllegalArgumentException.class, () -> plan("{'filter': 'facet', 'field': 'charity', 'value': []}"));
+        assertThrows(IllegalArgumentException.class, () -> plan("{'filter': 'facet', 'field': 'charity', 'value': [1]}"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.backend.tests.filtering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.entities.Comment;
+import com.backend.database.filtering.FilterPlan;
+import com.backend.database.filtering.FilterPlanCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class FilterPlanCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode json(String text) throws Exception {
+        return mapper.readTree(text.replace('\'', '"'));
+    }
+
+    @Test
+    public void testSameShapeSharesPlan() throws Exception {
+        FilterPlanCache cache = new FilterPlanCache(16);
+
+        FilterPlan first = cache.getPlan(Comment.class,
+            json("[{'filter': 'less', 'field': 'commentId', 'value': 5}]"));
+        FilterPlan second = cache.getPlan(Comment.class,
+            json("[{'value': 9, 'field': 'commentId', 'filter': 'less'}]"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testDifferentShapesDoNotSharePlans() throws Exception {
+        FilterPlanCache cache = new FilterPlanCache(16);
+
+        FilterPlan numeric = cache.getPlan(Comment.class,
+            json("{'filter': 'equals', 'field': 'commentId', 'value': 5}"));
+        FilterPlan text = cache.getPlan(Comment.class,
+            json("{'filter': 'equals', 'field': 'commentId', 'value': '5'}"));
+        FilterPlan repeated = cache.getPlan(Comment.class,
+            json("{'filter': 'or', 'arguments': ["
+                + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+                + "{'filter': 'equals', 'field': 'charity', 'value': 'a'}]}"));
+        FilterPlan distinct = cache.getPlan(Comment.class,
+            json("{'filter': 'or', 'arguments': ["
+                + "{'filter': 'equals', 'field': 'charity', 'value': 'a'},"
+                + "{'filter': 'equals', 'field': 'charity', 'value': 'b'}]}"));
+
+        assertNotSame(numeric, text);
+        assertNotSame(repeated, distinct);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        FilterPlanCache cache = new FilterPlanCache(2);
+
+        for (String field : new String[] { "charity", "commentId", "commentUser" }) {
+            cache.getPlan(Comment.class,
+                json("{'filter': 'equals', 'field': '" + field + "', 'value': 1}"));
+        }
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testInvalidFiltersAreRejected() throws Exception {
+        FilterPlanCache cache = new FilterPlanCache(16);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getPlan(Comment.class,
+            json("{'filter': 'less', 'field': 'commentId', 'value': 'five'}")));
+        assertThrows(IllegalArgumentException.class, () -> cache.getPlan(Comment.class,
+            json("{'filter': 'and'}")));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,55 @@
+package com.backend.tests.filtering;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.NONE;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.backend.database.entities.CharityData;
+import com.backend.database.entities.Comment;
+import com.backend.database.filtering.FilteredQuery;
+import com.backend.database.filtering.JsonToFilterConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Queries whose ordering or cursor can not be applied are rejected before they run (and before
+ * streamed responses start).
+ */
+@SpringBootTest(webEnvironment=NONE)
+public class QuerySpecTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode json(String text) throws Exception {
+        return mapper.readTree(text.replace('\'', '"'));
+    }
+
+    @Test
+    public void testMismatchedCursorIsRejected() throws Exception {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            "{\"o\":\"insertTime-,charity-,commentId-\",\"v\":[\"2025-10-16T00:00:00Z\",\"a\",1]}"
+                .getBytes(StandardCharsets.UTF_8));
+        JsonNode query = json("{'sorting': {'field': 'commentUser', 'ordering': 'ascending'}, 'max_count': 10, 'after': '"
+            + cursor + "'}");
+        assertThrows(IllegalArgumentException.class,
+            () -> JsonToFilterConverter.specFromJson(new FilteredQuery<>(entityManager, Comment.class), query));
+    }
+
+    @Test
+    public void testRelevanceWithoutSearchIsRejected() throws Exception {
+        JsonNode query = json("{'sorting': {'field': 'relevance', 'ordering': 'descending'}, 'max_count': 10}");
+        assertThrows(IllegalArgumentException.class,
+            () -> JsonToFilterConverter.specFromJson(new FilteredQuery<>(entityManager, CharityData.class), query));
+    }
+}
@@ -0,0 +1,57 @@
+package com.backend.tests.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.history.SearchHistoryBuffer;
+import com.backend.database.history.SearchHistoryBuffer.Entry;
+
+public class SearchHistoryBufferTest {
+
+    @Test
+    public void testPairsAreDeduplicated() {
+        AtomicLong now = new AtomicLong();
+        SearchHistoryBuffer buffer = new SearchHistoryBuffer(10, Duration.ofNanos(100), now::get);
+        buffer.offer("user", "a", false);
+        buffer.offer("user", "a", true);
+        buffer.offer("user", "a", false);
+        buffer.offer("user", "b", false);
+        assertEquals(2, buffer.size());
+
+        List<Entry> entries = buffer.drain(10);
+        assertTrue(entries.contains(new Entry("user", "a", true)));
+        buffer.complete(entries, true);
+
+        // Written within the window.
+        buffer.offer("user", "a", false);
+        buffer.offer("user", "b", false);
+        assertEquals(0, buffer.size());
+        buffer.offer("user", "b", true);
+        assertEquals(1, buffer.size());
+
+        now.set(100);
+        buffer.prune();
+        buffer.offer("user", "a", false);
+        assertEquals(2, buffer.size());
+        assertEquals(4, buffer.getDeduplicated());
+    }
+
+    @Test
+    public void testFullBufferSheds() {
+        SearchHistoryBuffer buffer = new SearchHistoryBuffer(1, Duration.ZERO);
+        assertTrue(buffer.offer("user", "a", false));
+        assertTrue(buffer.offer("user", "a", true));
+        assertFalse(buffer.offer("user", "b", false));
+        assertEquals(1, buffer.getShed());
+        buffer.complete(buffer.drain(10), false);
+        assertEquals(1, buffer.getFailed());
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,43 @@
+package com.backend.tests.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.ranking.Leaderboard;
+import com.backend.database.ranking.Leaderboard.Entry;
+
+public class LeaderboardTest {
+
+    private Leaderboard board() {
+        Leaderboard board = new Leaderboard();
+        board.reset(Map.of("a", 5L, "b", 3L, "c", 3L, "d", -1L, "e", 0L));
+        return board;
+    }
+
+    @Test
+    public void testTopIsOrderedByScoreThenCharity() {
+        Leaderboard board = board();
+        assertEquals(List.of(new Entry("a", 5, 1), new Entry("b", 3, 2), new Entry("c", 3, 3)), board.top(3));
+        board.add("d", 7);
+        board.add("b", -3);
+        assertEquals(List.of(new Entry("d", 6, 1), new Entry("a", 5, 2)), board.top(2));
+        assertEquals(new Entry("b", 0, 4), board.get("b").get());
+        assertEquals(5, board.top(10).size());
+    }
+
+    @Test
+    public void testWindowAroundCharity() {
+        Leaderboard board = board();
+        assertEquals(List.of(new Entry("b", 3, 2), new Entry("c", 3, 3), new Entry("e", 0, 4)), board.around("c", 1));
+        assertEquals(List.of(new Entry("a", 5, 1), new Entry("b", 3, 2)), board.around("a", 1));
+        assertTrue(board.around("x", 1).isEmpty());
+
+        board.reset(Map.of("a", 1L));
+        assertEquals(1, board.size());
+    }
+}
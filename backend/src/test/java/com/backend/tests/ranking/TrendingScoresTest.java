@@ -0,0 +1,46 @@
+package com.backend.tests.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.ranking.TrendingScores;
+
+public class TrendingScoresTest {
+
+    @Test
+    public void testScoresHalveEveryHalfLife() {
+        AtomicLong now = new AtomicLong();
+        TrendingScores scores = new TrendingScores(Duration.ofMillis(10), now::get);
+        scores.add("a", 4);
+        now.set(10);
+        scores.add("b", 3);
+        assertEquals(2, scores.get("a"), 1e-9);
+        assertEquals(List.of("b", "a"), scores.top(2).stream().map(TrendingScores.Entry::charity).toList());
+
+        // Far enough to move the epoch forward.
+        now.set(10 + 10 * 100);
+        scores.add("a", 1);
+        assertEquals(1, scores.get("a"), 1e-9);
+        assertEquals(3 * Math.pow(2, -100), scores.get("b"), 1e-40);
+    }
+
+    @Test
+    public void testSnapshotDropsDecayedScores() {
+        AtomicLong now = new AtomicLong();
+        TrendingScores scores = new TrendingScores(Duration.ofMillis(10), now::get);
+        scores.add("a", 1);
+        scores.add("b", 8, -20);
+        now.set(20);
+        Map<String, Double> snapshot = scores.snapshot(0.5);
+        assertEquals(Set.of("b"), snapshot.keySet());
+        assertEquals(0.5, snapshot.get("b"), 1e-9);
+        assertEquals(1, scores.size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.tests.responses;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.backend.controllers.StreamingList;
+import com.backend.database.filtering.FilteredQuery;
+import com.backend.database.filtering.QuerySpec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * Streamed responses that fail part way must not look complete.
+ */
+public class StreamingListTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @SuppressWarnings("unchecked")
+    private static FilteredQuery<String> query(String... rows) {
+        FilteredQuery<String> query = mock(FilteredQuery.class);
+        when(query.streamPage(any(), any())).thenAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(1);
+            for (String row : rows)
+                consumer.accept(row);
+            return Optional.empty();
+        });
+        return query;
+    }
+
+    private static StreamingResponseBody body(FilteredQuery<String> query, Consumer<String> onRow) {
+        return StreamingList.of(mock(PlatformTransactionManager.class), query,
+            new QuerySpec<>(Optional.empty(), null, null), TextNode::new, json -> onRow.accept(json.asText()), () -> {});
+    }
+
+    @Test
+    public void testCompleteResponse() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        body(query("a", "b"), row -> {}).writeTo(output);
+        assertEquals("{\"message\":\"success\",\"value\":[\"a\",\"b\"]}", output.toString());
+    }
+
+    @Test
+    public void testFailedResponseIsNotClosed() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StreamingResponseBody body = body(query("a", "b"), row -> {
+            if (row.equals("b"))
+                throw new IllegalStateException("Row consumer failed.");
+        });
+        assertThrows(IllegalStateException.class, () -> body.writeTo(output));
+        assertThrows(JsonProcessingException.class, () -> mapper.readTree(output.toString()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.backend.tests.votes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.database.votes.VoteBuffer;
+import com.backend.database.votes.VoteBuffer.Delta;
+import com.backend.database.votes.VoteBuffer.Result;
+import com.backend.database.votes.VoteBuffer.VoteWrite;
+
+public class VoteBufferTest {
+
+    @Test
+    public void testPendingVotesAreVisible() {
+        VoteBuffer buffer = new VoteBuffer(16, 4);
+        assertEquals(Result.ACCEPTED, buffer.offer("user", "charity", Optional.of(true), Optional::empty));
+        assertEquals(Result.ACCEPTED, buffer.offer("user", "charity", Optional.of(false), () -> { throw new AssertionError(); }));
+        assertEquals(Result.ACCEPTED, buffer.offer("other", "charity", Optional.empty(), () -> Optional.of(true)));
+
+        assertEquals(Optional.of(false), buffer.getPending("user", "charity").get().vote());
+        assertEquals(new Delta(-1, 1), buffer.getPendingDelta("charity"));
+        assertEquals(3, buffer.getQueueDepth());
+
+        List<VoteWrite> writes = buffer.drain(2);
+        buffer.complete(writes, true, 0);
+        // The last vote of "user" is written, the removal by "other" is still pending.
+        assertTrue(buffer.getPending("user", "charity").isEmpty());
+        assertEquals(new Delta(-1, 0), buffer.getPendingDelta("charity"));
+        assertEquals(2, buffer.getWritten());
+    }
+
+    @Test
+    public void testFullQueueDropsVotes() {
+        VoteBuffer buffer = new VoteBuffer(1, 1);
+        assertEquals(Result.ACCEPTED, buffer.offer("user", "a", Optional.of(true), Optional::empty));
+        // Repeating the stored vote is not a write.
+        assertEquals(Result.UNCHANGED, buffer.offer("user", "b", Optional.of(true), () -> Optional.of(true)));
+        assertEquals(Result.DROPPED, buffer.offer("user", "c", Optional.of(true), Optional::empty));
+        assertTrue(buffer.getPending("user", "c").isEmpty());
+        assertEquals(1, buffer.getDropped());
+
+        buffer.complete(buffer.drain(10), false, 0);
+        assertEquals(2, buffer.getDropped());
+        assertEquals(Delta.NONE, buffer.getPendingDelta("a"));
+    }
+
+    @Test
+    public void testStoredVoteIsReadAgainAfterAWriteCompletes() {
+        VoteBuffer buffer = new VoteBuffer(16, 1);
+        assertEquals(Result.ACCEPTED, buffer.offer("user", "charity", Optional.of(true), Optional::empty));
+        List<VoteWrite> writes = buffer.drain(1);
+        // A write of the same stripe completes while the stored vote is read: it is read again.
+        int[] reads = { 0 };
+        assertEquals(Result.UNCHANGED, buffer.offer("other", "charity", Optional.of(true), () -> {
+            if (1 == ++reads[0]) {
+                buffer.complete(writes, true, 0);
+                return Optional.empty();
+            }
+            return Optional.of(true);
+        }));
+        assertEquals(2, reads[0]);
+        assertEquals(Delta.NONE, buffer.getPendingDelta("charity"));
+    }
+}